@@ -0,0 +1,85 @@
+package com.onboarding.events.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("onboarding.singleflight.calls")
+                .description("Calls that ran the underlying operation or joined one already in flight")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("onboarding.singleflight.calls")
+                .description("Calls that ran the underlying operation or joined one already in flight")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("onboarding.singleflight.in-flight", inFlight, ConcurrentMap::size)
+                .description("Distinct keys with an operation in flight")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        // putIfAbsent only contends on the key's own bin, so unrelated keys never wait on each other
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        executed.increment();
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (Throwable e) {
+            // Otherwise the key would stay claimed and every later caller would hang on it
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, failure) -> {
+            // Removed before completing so a caller arriving afterwards starts a fresh call
+            inFlight.remove(key, promise);
+            if (failure != null) {
+                promise.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause()
+                        : failure);
+            } else {
+                promise.complete(value);
+            }
+        });
+        // Callers get their own view so none of them can complete the shared future
+        return promise.copy();
+    }
+
+    // For blocking operations: the first caller runs it on its own thread, the rest wait for its result
+    public V executeBlocking(K key, Supplier<V> call) {
+        try {
+            return execute(key, () -> CompletableFuture.completedFuture(call.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
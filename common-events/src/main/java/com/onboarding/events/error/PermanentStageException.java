@@ -0,0 +1,13 @@
+package com.onboarding.events.error;
+
+// Deterministic rejection (blacklist, failed verification, bad input): retrying cannot change the outcome
+public class PermanentStageException extends StageException {
+
+    public PermanentStageException(String errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    public PermanentStageException(String errorCode, String message, Throwable cause) {
+        super(errorCode, message, cause);
+    }
+}
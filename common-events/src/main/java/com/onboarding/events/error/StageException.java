@@ -0,0 +1,19 @@
+package com.onboarding.events.error;
+
+public abstract class StageException extends RuntimeException {
+    private final String errorCode;
+
+    protected StageException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    protected StageException(String errorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
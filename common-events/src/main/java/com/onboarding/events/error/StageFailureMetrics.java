@@ -0,0 +1,32 @@
+package com.onboarding.events.error;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class StageFailureMetrics {
+    private static final String UNCLASSIFIED = "UNCLASSIFIED";
+
+    private final MeterRegistry meterRegistry;
+    private final String stage;
+
+    public StageFailureMetrics(MeterRegistry meterRegistry, String stage) {
+        this.meterRegistry = meterRegistry;
+        this.stage = stage;
+    }
+
+    // Anything not explicitly marked permanent is counted (and retried) as transient
+    public void record(Throwable failure) {
+        boolean permanent = failure instanceof PermanentStageException;
+        String errorCode = failure instanceof StageException stageException
+                ? stageException.getErrorCode()
+                : UNCLASSIFIED;
+
+        Counter.builder("onboarding.stage.failures")
+                .description("Stage processing failures by class")
+                .tag("stage", stage)
+                .tag("class", permanent ? "permanent" : "transient")
+                .tag("error.code", errorCode)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,13 @@
+package com.onboarding.events.error;
+
+// Failure of a dependency (provider timeout, SMTP outage) that may succeed on a later attempt
+public class TransientStageException extends StageException {
+
+    public TransientStageException(String errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    public TransientStageException(String errorCode, String message, Throwable cause) {
+        super(errorCode, message, cause);
+    }
+}
@@ -0,0 +1,24 @@
+package com.onboarding.events.fault;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FaultInjectionProperties.class)
+public class FaultInjectionConfiguration {
+
+    @Bean
+    public FaultInjector faultInjector(FaultInjectionProperties faultInjectionProperties, MeterRegistry meterRegistry) {
+        return new FaultInjector(faultInjectionProperties, meterRegistry);
+    }
+
+    // Writable and unauthenticated, so it only exists where a perf/local profile turns it on
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.faults", name = "enabled", havingValue = "true")
+    public FaultInjectionEndpoint faultInjectionEndpoint(FaultInjector faultInjector) {
+        return new FaultInjectionEndpoint(faultInjector);
+    }
+}
@@ -0,0 +1,74 @@
+package com.onboarding.events.fault;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+
+// GET /actuator/faults[/{stage}], POST /actuator/faults/{stage} with any of the parameters below,
+// DELETE /actuator/faults/{stage} to go back to the configured settings
+@Endpoint(id = "faults")
+public class FaultInjectionEndpoint {
+
+    private final FaultInjector faultInjector;
+
+    public FaultInjectionEndpoint(FaultInjector faultInjector) {
+        this.faultInjector = faultInjector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> faults() {
+        return faultInjector.describe();
+    }
+
+    @ReadOperation
+    public Map<String, Object> stage(@Selector String stage) {
+        return faultInjector.describe(stage);
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Selector String stage,
+                                         @Nullable Boolean enabled,
+                                         @Nullable Double errorRate,
+                                         @Nullable FaultInjectionProperties.Distribution distribution,
+                                         @Nullable Long meanMs,
+                                         @Nullable Long minMs,
+                                         @Nullable Long maxMs,
+                                         @Nullable Double sigma,
+                                         @Nullable Long brownoutSeconds) {
+        FaultInjectionProperties.Latency latency = null;
+        if (distribution != null) {
+            // Replaces the whole latency model; HISTOGRAM percentiles can only come from configuration
+            latency = new FaultInjectionProperties.Latency();
+            latency.setDistribution(distribution);
+            if (meanMs != null) {
+                latency.setMean(Duration.ofMillis(meanMs));
+            }
+            if (minMs != null) {
+                latency.setMin(Duration.ofMillis(minMs));
+            }
+            if (maxMs != null) {
+                latency.setMax(Duration.ofMillis(maxMs));
+            }
+            if (sigma != null) {
+                latency.setSigma(sigma);
+            }
+        }
+        Duration brownout = brownoutSeconds != null ? Duration.ofSeconds(brownoutSeconds) : null;
+        // Starting a brownout on a disabled stage implies enabling it
+        Boolean enable = enabled == null && brownout != null ? Boolean.TRUE : enabled;
+
+        faultInjector.update(stage, enable, errorRate, latency, brownout);
+        return faultInjector.describe(stage);
+    }
+
+    @DeleteOperation
+    public void reset(@Selector String stage) {
+        faultInjector.reset(stage);
+    }
+}
@@ -0,0 +1,179 @@
+package com.onboarding.events.fault;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@ConfigurationProperties(prefix = "onboarding.faults")
+public class FaultInjectionProperties {
+    // Registers the faults actuator endpoint; stages configured below apply either way
+    private boolean enabled = false;
+    // Keyed by stage name: kyc, identity, provisioning, notification
+    private Map<String, Stage> stages = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, Stage> getStages() {
+        return stages;
+    }
+
+    public void setStages(Map<String, Stage> stages) {
+        this.stages = stages;
+    }
+
+    public enum Distribution {
+        FIXED,
+        UNIFORM,
+        LOG_NORMAL,
+        HISTOGRAM
+    }
+
+    public static class Stage {
+        private boolean enabled = false;
+        private Latency latency = new Latency();
+        // Share of calls failed with a transient FAULT_INJECTED error
+        private double errorRate = 0.0;
+        private Brownout brownout = new Brownout();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Latency getLatency() {
+            return latency;
+        }
+
+        public void setLatency(Latency latency) {
+            this.latency = latency;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public Brownout getBrownout() {
+            return brownout;
+        }
+
+        public void setBrownout(Brownout brownout) {
+            this.brownout = brownout;
+        }
+    }
+
+    public static class Latency {
+        private Distribution distribution = Distribution.FIXED;
+        // FIXED: every call; LOG_NORMAL: the median
+        private Duration mean = Duration.ZERO;
+        private Duration min = Duration.ZERO;
+        private Duration max = Duration.ofSeconds(10);
+        private double sigma = 0.5;
+        // HISTOGRAM: latency at each percentile, e.g. 50: 80ms, 99: 1200ms ("[99.9]" for fractional keys)
+        private Map<Double, Duration> percentiles = new TreeMap<>();
+
+        public Distribution getDistribution() {
+            return distribution;
+        }
+
+        public void setDistribution(Distribution distribution) {
+            this.distribution = distribution;
+        }
+
+        public Duration getMean() {
+            return mean;
+        }
+
+        public void setMean(Duration mean) {
+            this.mean = mean;
+        }
+
+        public Duration getMin() {
+            return min;
+        }
+
+        public void setMin(Duration min) {
+            this.min = min;
+        }
+
+        public Duration getMax() {
+            return max;
+        }
+
+        public void setMax(Duration max) {
+            this.max = max;
+        }
+
+        public double getSigma() {
+            return sigma;
+        }
+
+        public void setSigma(double sigma) {
+            this.sigma = sigma;
+        }
+
+        public Map<Double, Duration> getPercentiles() {
+            return percentiles;
+        }
+
+        public void setPercentiles(Map<Double, Duration> percentiles) {
+            this.percentiles = percentiles;
+        }
+    }
+
+    // Recurring degradation: for the first `duration` of every `period`, calls use the brownout
+    // error rate and their latency is multiplied by `latency-factor`
+    public static class Brownout {
+        private Duration period = Duration.ZERO;
+        private Duration duration = Duration.ZERO;
+        private double errorRate = 0.5;
+        private double latencyFactor = 5.0;
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public void setDuration(Duration duration) {
+            this.duration = duration;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public double getLatencyFactor() {
+            return latencyFactor;
+        }
+
+        public void setLatencyFactor(double latencyFactor) {
+            this.latencyFactor = latencyFactor;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.onboarding.events.fault;
+
+import com.onboarding.events.error.TransientStageException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Adds configurable latency and transient errors in front of a stage's provider call. Disabled
+// stages cost one map lookup; settings can be changed at runtime through the faults endpoint.
+public class FaultInjector {
+    private static final Logger logger = LoggerFactory.getLogger(FaultInjector.class);
+
+    private final FaultInjectionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, StageFaults> stages = new ConcurrentHashMap<>();
+
+    public FaultInjector(FaultInjectionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        properties.getStages().forEach((stage, settings) -> stages.put(stage, StageFaults.of(settings)));
+    }
+
+    // Blocking form: sleeps for the sampled latency, then possibly throws
+    public void apply(String stage) {
+        Fault fault = sample(stage);
+        if (fault.delayNanos() > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(fault.delayNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (fault.fail()) {
+            throw injectedFailure(stage);
+        }
+    }
+
+    public <T> T call(String stage, Supplier<T> call) {
+        apply(stage);
+        return call.get();
+    }
+
+    // Non-blocking form: the call starts (or fails) once the sampled latency has elapsed
+    public <T> CompletableFuture<T> callAsync(String stage, Supplier<CompletableFuture<T>> call) {
+        Fault fault = sample(stage);
+        if (fault == Fault.NONE) {
+            return call.get();
+        }
+        return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(fault.delayNanos(), TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> fault.fail()
+                        ? CompletableFuture.<T>failedFuture(injectedFailure(stage))
+                        : call.get());
+    }
+
+    public Map<String, Object> describe() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> description = new TreeMap<>();
+        stages.forEach((stage, faults) -> description.put(stage, faults.describe(now)));
+        return description;
+    }
+
+    public Map<String, Object> describe(String stage) {
+        return stages.getOrDefault(stage, StageFaults.NONE).describe(System.currentTimeMillis());
+    }
+
+    public void update(String stage, Boolean enabled, Double errorRate,
+                       FaultInjectionProperties.Latency latency, Duration brownout) {
+        update(stage, faults -> {
+            StageFaults updated = faults;
+            if (enabled != null) {
+                updated = updated.withEnabled(enabled);
+            }
+            if (errorRate != null) {
+                updated = updated.withErrorRate(errorRate);
+            }
+            if (latency != null) {
+                updated = updated.withLatency(LatencyModel.of(latency));
+            }
+            if (brownout != null) {
+                updated = updated.withBrownoutUntil(Instant.now().plus(brownout));
+            }
+            return updated;
+        });
+        logger.warn("Fault injection for stage {} changed to {}", stage, describe(stage));
+    }
+
+    // Back to the settings from configuration
+    public void reset(String stage) {
+        FaultInjectionProperties.Stage configured = properties.getStages().get(stage);
+        if (configured != null) {
+            stages.put(stage, StageFaults.of(configured));
+        } else {
+            stages.remove(stage);
+        }
+        logger.info("Fault injection for stage {} reset to configuration", stage);
+    }
+
+    private void update(String stage, UnaryOperator<StageFaults> change) {
+        stages.compute(stage, (key, faults) -> change.apply(faults != null ? faults : StageFaults.NONE));
+    }
+
+    private Fault sample(String stage) {
+        StageFaults faults = stages.get(stage);
+        if (faults == null || !faults.enabled()) {
+            return Fault.NONE;
+        }
+
+        boolean brownout = faults.inBrownout(System.currentTimeMillis());
+        double errorRate = brownout ? faults.brownoutErrorRate() : faults.errorRate();
+        long delayNanos = faults.latency().sampleNanos();
+        if (brownout) {
+            delayNanos = Math.round(delayNanos * faults.brownoutLatencyFactor());
+        }
+        boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+
+        if (delayNanos > 0) {
+            counter(stage, "latency").increment();
+        }
+        if (fail) {
+            counter(stage, "error").increment();
+        }
+        return delayNanos == 0 && !fail ? Fault.NONE : new Fault(delayNanos, fail);
+    }
+
+    private Counter counter(String stage, String type) {
+        return Counter.builder("onboarding.faults.injected")
+                .description("Calls delayed or failed by fault injection")
+                .tag("stage", stage)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static TransientStageException injectedFailure(String stage) {
+        return new TransientStageException("FAULT_INJECTED", "Injected fault in " + stage + " stage");
+    }
+
+    private record Fault(long delayNanos, boolean fail) {
+        static final Fault NONE = new Fault(0, false);
+    }
+}
@@ -0,0 +1,69 @@
+package com.onboarding.events.fault;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Immutable latency sampler compiled from FaultInjectionProperties.Latency, shared by fault injection and the
+// stub providers
+public record LatencyModel(FaultInjectionProperties.Distribution distribution, long meanNanos, long minNanos, long maxNanos,
+                    double sigma, double[] percentiles, long[] percentileNanos) {
+
+    public static LatencyModel of(FaultInjectionProperties.Latency latency) {
+        // Percentile points sorted ascending, anchored at p0 = min so every sample interpolates between two points
+        TreeMap<Double, Duration> points = new TreeMap<>(latency.getPercentiles());
+        points.putIfAbsent(0.0, latency.getMin());
+        double[] percentiles = new double[points.size()];
+        long[] nanos = new long[points.size()];
+        int i = 0;
+        for (Map.Entry<Double, Duration> point : points.entrySet()) {
+            percentiles[i] = Math.min(100.0, point.getKey());
+            nanos[i] = point.getValue().toNanos();
+            i++;
+        }
+        return new LatencyModel(latency.getDistribution(), latency.getMean().toNanos(), latency.getMin().toNanos(),
+                latency.getMax().toNanos(), latency.getSigma(), percentiles, nanos);
+    }
+
+    public long sampleNanos() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long nanos = switch (distribution) {
+            case FIXED -> meanNanos;
+            case UNIFORM -> maxNanos > minNanos ? random.nextLong(minNanos, maxNanos + 1) : minNanos;
+            case LOG_NORMAL -> Math.round(meanNanos * Math.exp(sigma * random.nextGaussian()));
+            case HISTOGRAM -> fromHistogram(random.nextDouble() * 100.0);
+        };
+        return Math.max(0, Math.min(maxNanos, nanos));
+    }
+
+    private long fromHistogram(double percentile) {
+        for (int i = 1; i < percentiles.length; i++) {
+            if (percentile <= percentiles[i]) {
+                double span = percentiles[i] - percentiles[i - 1];
+                double fraction = span > 0 ? (percentile - percentiles[i - 1]) / span : 1.0;
+                return percentileNanos[i - 1] + Math.round((percentileNanos[i] - percentileNanos[i - 1]) * fraction);
+            }
+        }
+        return percentileNanos[percentileNanos.length - 1];
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("distribution", distribution);
+        description.put("mean", Duration.ofNanos(meanNanos).toString());
+        description.put("min", Duration.ofNanos(minNanos).toString());
+        description.put("max", Duration.ofNanos(maxNanos).toString());
+        description.put("sigma", sigma);
+        if (distribution == FaultInjectionProperties.Distribution.HISTOGRAM) {
+            Map<String, String> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < percentiles.length; i++) {
+                histogram.put("p" + BigDecimal.valueOf(percentiles[i]).stripTrailingZeros().toPlainString(), Duration.ofNanos(percentileNanos[i]).toString());
+            }
+            description.put("percentiles", histogram);
+        }
+        return description;
+    }
+}
@@ -0,0 +1,66 @@
+package com.onboarding.events.fault;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable fault settings of one stage; runtime changes replace the whole instance
+record StageFaults(boolean enabled, LatencyModel latency, double errorRate,
+                   long brownoutPeriodMillis, long brownoutDurationMillis, double brownoutErrorRate,
+                   double brownoutLatencyFactor, Instant brownoutUntil) {
+
+    static final StageFaults NONE = of(new FaultInjectionProperties.Stage());
+
+    static StageFaults of(FaultInjectionProperties.Stage stage) {
+        FaultInjectionProperties.Brownout brownout = stage.getBrownout();
+        return new StageFaults(stage.isEnabled(), LatencyModel.of(stage.getLatency()), stage.getErrorRate(),
+                brownout.getPeriod().toMillis(), brownout.getDuration().toMillis(), brownout.getErrorRate(),
+                brownout.getLatencyFactor(), Instant.EPOCH);
+    }
+
+    boolean inBrownout(long nowMillis) {
+        if (nowMillis < brownoutUntil.toEpochMilli()) {
+            return true;
+        }
+        return brownoutPeriodMillis > 0 && nowMillis % brownoutPeriodMillis < brownoutDurationMillis;
+    }
+
+    StageFaults withEnabled(boolean enabled) {
+        return new StageFaults(enabled, latency, errorRate, brownoutPeriodMillis, brownoutDurationMillis,
+                brownoutErrorRate, brownoutLatencyFactor, brownoutUntil);
+    }
+
+    StageFaults withLatency(LatencyModel latency) {
+        return new StageFaults(enabled, latency, errorRate, brownoutPeriodMillis, brownoutDurationMillis,
+                brownoutErrorRate, brownoutLatencyFactor, brownoutUntil);
+    }
+
+    StageFaults withErrorRate(double errorRate) {
+        return new StageFaults(enabled, latency, errorRate, brownoutPeriodMillis, brownoutDurationMillis,
+                brownoutErrorRate, brownoutLatencyFactor, brownoutUntil);
+    }
+
+    StageFaults withBrownoutUntil(Instant brownoutUntil) {
+        return new StageFaults(enabled, latency, errorRate, brownoutPeriodMillis, brownoutDurationMillis,
+                brownoutErrorRate, brownoutLatencyFactor, brownoutUntil);
+    }
+
+    Map<String, Object> describe(long nowMillis) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("enabled", enabled);
+        description.put("errorRate", errorRate);
+        description.put("latency", latency.describe());
+        Map<String, Object> brownout = new LinkedHashMap<>();
+        brownout.put("active", inBrownout(nowMillis));
+        brownout.put("period", Duration.ofMillis(brownoutPeriodMillis).toString());
+        brownout.put("duration", Duration.ofMillis(brownoutDurationMillis).toString());
+        brownout.put("errorRate", brownoutErrorRate);
+        brownout.put("latencyFactor", brownoutLatencyFactor);
+        if (nowMillis < brownoutUntil.toEpochMilli()) {
+            brownout.put("until", brownoutUntil.toString());
+        }
+        description.put("brownout", brownout);
+        return description;
+    }
+}
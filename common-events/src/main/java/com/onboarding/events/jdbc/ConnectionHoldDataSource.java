@@ -0,0 +1,27 @@
+package com.onboarding.events.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// DelegatingDataSource so actuator's pool metrics and health still unwrap to the real pool
+public class ConnectionHoldDataSource extends DelegatingDataSource {
+    private final ConnectionHoldMetrics metrics;
+
+    public ConnectionHoldDataSource(DataSource targetDataSource, ConnectionHoldMetrics metrics) {
+        super(targetDataSource);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return metrics.track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return metrics.track(super.getConnection(username, password));
+    }
+}
@@ -0,0 +1,27 @@
+package com.onboarding.events.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ConnectionHoldMetricsConfiguration {
+
+    // Static and lazily resolving the registry so registering the post-processor doesn't pull metrics beans in early
+    @Bean
+    public static BeanPostProcessor connectionHoldMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldDataSource)) {
+                    return new ConnectionHoldDataSource(dataSource, new ConnectionHoldMetrics(meterRegistry.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+}
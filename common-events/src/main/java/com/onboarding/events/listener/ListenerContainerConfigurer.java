@@ -0,0 +1,39 @@
+package com.onboarding.events.listener;
+
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+public final class ListenerContainerConfigurer {
+
+    private ListenerContainerConfigurer() {
+    }
+
+    public static void configure(SimpleRabbitListenerContainerFactory factory,
+                                 ListenerProperties properties,
+                                 Environment environment) {
+        // With spring.threads.virtual.enabled every consumer runs on its own virtual thread, so the
+        // consumer count below becomes the in-flight limit per queue rather than a thread budget
+        if (Threading.VIRTUAL.isActive(environment)) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-listener-"));
+        }
+
+        int concurrency = Math.max(1, properties.getConcurrency());
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, properties.getMaxConcurrency()));
+        factory.setPrefetchCount(properties.getPrefetch());
+
+        if (!properties.getQueueConcurrency().isEmpty()) {
+            factory.setContainerCustomizer(container -> {
+                for (String queue : container.getQueueNames()) {
+                    Integer consumers = properties.getQueueConcurrency().get(queue);
+                    if (consumers != null && consumers > 0) {
+                        container.setConcurrency(consumers + "-" + consumers);
+                        return;
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.onboarding.events.listener;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "onboarding.listener")
+public class ListenerProperties {
+    private int concurrency = 1;
+    private int maxConcurrency = 1;
+    private int prefetch = 250;
+    // Consumers per queue name, overriding concurrency/maxConcurrency for that queue
+    private Map<String, Integer> queueConcurrency = new HashMap<>();
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public Map<String, Integer> getQueueConcurrency() {
+        return queueConcurrency;
+    }
+
+    public void setQueueConcurrency(Map<String, Integer> queueConcurrency) {
+        this.queueConcurrency = queueConcurrency;
+    }
+}
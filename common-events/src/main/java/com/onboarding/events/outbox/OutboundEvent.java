@@ -0,0 +1,21 @@
+package com.onboarding.events.outbox;
+
+import com.onboarding.events.BaseEvent;
+
+public class OutboundEvent {
+    private final String routingKey;
+    private final BaseEvent event;
+
+    public OutboundEvent(String routingKey, BaseEvent event) {
+        this.routingKey = routingKey;
+        this.event = event;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public BaseEvent getEvent() {
+        return event;
+    }
+}
@@ -0,0 +1,39 @@
+package com.onboarding.events.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// The outbox_events table comes from the repeatable Flyway migration in db/migration/outbox
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = "onboarding.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfiguration {
+
+    @Bean
+    public OutboxRepository outboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        return new OutboxRepository(jdbcTemplate);
+    }
+
+    @Bean
+    public OutboxWriter outboxWriter(OutboxRepository outboxRepository, MessageConverter messageConverter) {
+        return new OutboxWriter(outboxRepository, messageConverter);
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxRepository outboxRepository, RabbitTemplate rabbitTemplate,
+                                   PlatformTransactionManager transactionManager, OutboxProperties properties,
+                                   MeterRegistry meterRegistry) {
+        return new OutboxRelay(outboxRepository, rabbitTemplate, new TransactionTemplate(transactionManager), properties,
+                meterRegistry);
+    }
+}
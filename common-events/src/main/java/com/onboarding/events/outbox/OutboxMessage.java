@@ -0,0 +1,50 @@
+package com.onboarding.events.outbox;
+
+public class OutboxMessage {
+    private final long id;
+    private final String requestId;
+    private final String exchange;
+    private final String routingKey;
+    private final String payloadType;
+    private final String contentType;
+    private final String payload;
+
+    public OutboxMessage(long id, String requestId, String exchange, String routingKey,
+                         String payloadType, String contentType, String payload) {
+        this.id = id;
+        this.requestId = requestId;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.payloadType = payloadType;
+        this.contentType = contentType;
+        this.payload = payload;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public String getExchange() {
+        return exchange;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public String getPayloadType() {
+        return payloadType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+}
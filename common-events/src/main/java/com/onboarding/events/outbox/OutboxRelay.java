@@ -0,0 +1,166 @@
+package com.onboarding.events.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+    // Refreshed on a schedule rather than queried on every scrape
+    private final AtomicLong failed = new AtomicLong();
+
+    public OutboxRelay(OutboxRepository outboxRepository, RabbitTemplate rabbitTemplate,
+                       TransactionTemplate transactionTemplate, OutboxProperties properties, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        Gauge.builder("onboarding.outbox.events.failed", failed, AtomicLong::get)
+                .description("Outbox events given up on after max-attempts, never published")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${onboarding.outbox.poll-interval:500ms}")
+    public void relayPending() {
+        try {
+            // Keep draining while batches come back full
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed >= properties.getBatchSize());
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay run failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    public void purgeSent() {
+        try {
+            int purged = outboxRepository.purgeSent(properties.getRetention());
+            if (purged > 0) {
+                logger.info("Purged {} relayed events from the outbox", purged);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Outbox purge failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 10_000)
+    public void refreshFailedCount() {
+        try {
+            long count = outboxRepository.countFailed();
+            if (count > failed.getAndSet(count)) {
+                logger.warn("Outbox has {} events that were given up on and never published", count);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to count failed outbox events", e);
+        }
+    }
+
+    // Three steps, none of them inside another: the claim commits on its own, the batch is published and confirmed
+    // with no transaction open, and the outcome is written in a second short transaction. A relay that dies in
+    // between leaves its rows to be claimed again once the lease runs out.
+    public int relayBatch() {
+        List<OutboxMessage> batch = transactionTemplate.execute(status ->
+                outboxRepository.claimPending(properties.getBatchSize(), properties.getLeaseTimeout()));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CorrelationData> confirms = publish(batch);
+
+        // One deadline for the whole batch: confirms arrive together, so waiting per message only adds up timeouts
+        long deadline = System.nanoTime() + properties.getConfirmTimeout().toNanos();
+        List<Long> sent = new ArrayList<>(batch.size());
+        List<Long> retry = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (isConfirmed(confirms.get(i), deadline)) {
+                sent.add(batch.get(i).getId());
+            } else {
+                retry.add(batch.get(i).getId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.markSent(sent);
+            outboxRepository.markForRetry(retry, properties.getMaxAttempts());
+        });
+        if (!retry.isEmpty()) {
+            logger.warn("Outbox relay: {} of {} events not confirmed, will retry", retry.size(), batch.size());
+        }
+        logger.debug("Outbox relay published {} events", sent.size());
+        return batch.size();
+    }
+
+    private List<CorrelationData> publish(List<OutboxMessage> batch) {
+        try {
+            // invoke() binds one channel to the relay thread for the whole batch
+            return rabbitTemplate.invoke(operations -> {
+                List<CorrelationData> confirms = new ArrayList<>(batch.size());
+                for (OutboxMessage outboxMessage : batch) {
+                    CorrelationData correlationData = new CorrelationData("outbox-" + outboxMessage.getId());
+                    operations.send(outboxMessage.getExchange(), outboxMessage.getRoutingKey(),
+                            toAmqpMessage(outboxMessage), correlationData);
+                    confirms.add(correlationData);
+                }
+                return confirms;
+            });
+        } catch (AmqpException e) {
+            logger.error("Outbox relay failed to publish batch of {} events", batch.size(), e);
+            List<CorrelationData> failed = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                CorrelationData correlationData = new CorrelationData();
+                correlationData.getFuture().complete(new CorrelationData.Confirm(false, e.getMessage()));
+                failed.add(correlationData);
+            }
+            return failed;
+        }
+    }
+
+    private boolean isConfirmed(CorrelationData correlationData, long deadline) {
+        try {
+            CorrelationData.Confirm confirm = correlationData.getFuture()
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return confirm.isAck() && correlationData.getReturned() == null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Message toAmqpMessage(OutboxMessage outboxMessage) {
+        MessageProperties messageProperties = new MessageProperties();
+        messageProperties.setContentType(outboxMessage.getContentType());
+        messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
+        messageProperties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        // Stable id so consumers can recognise a redelivered outbox row
+        messageProperties.setMessageId("outbox-" + outboxMessage.getId());
+        if (outboxMessage.getPayloadType() != null) {
+            messageProperties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, outboxMessage.getPayloadType());
+        }
+        return new Message(outboxMessage.getPayload().getBytes(StandardCharsets.UTF_8), messageProperties);
+    }
+}
@@ -0,0 +1,112 @@
+package com.onboarding.events.outbox;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+public class OutboxRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (request_id, exchange, routing_key, payload_type, content_type, payload) " +
+            "VALUES (:requestId, :exchange, :routingKey, :payloadType, :contentType, :payload)";
+
+    // Claiming moves next_attempt_at forward by the lease, so the claim commits at once and no transaction stays
+    // open while the batch is published. SKIP LOCKED lets several relay instances claim disjoint batches.
+    private static final String CLAIM_SQL =
+            "UPDATE outbox_events SET next_attempt_at = now() + make_interval(secs => :leaseSeconds) " +
+            "WHERE id IN (SELECT id FROM outbox_events WHERE status = 'PENDING' AND next_attempt_at <= now() " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, request_id, exchange, routing_key, payload_type, content_type, payload";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE outbox_events SET status = 'SENT', sent_at = now() WHERE id IN (:ids)";
+
+    private static final String MARK_RETRY_SQL =
+            "UPDATE outbox_events SET attempts = attempts + 1, " +
+            "status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END, next_attempt_at = now() " +
+            "WHERE id IN (:ids)";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM outbox_events WHERE status = 'SENT' AND sent_at < now() - make_interval(secs => :retentionSeconds)";
+
+    private static final String COUNT_FAILED_SQL =
+            "SELECT count(*) FROM outbox_events WHERE status = 'FAILED'";
+
+    private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getString("request_id"),
+            rs.getString("exchange"),
+            rs.getString("routing_key"),
+            rs.getString("payload_type"),
+            rs.getString("content_type"),
+            rs.getString("payload")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(OutboxMessage message) {
+        jdbcTemplate.update(INSERT_SQL, toParameters(message));
+    }
+
+    public void insertAll(List<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = messages.stream()
+                .map(OutboxRepository::toParameters)
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    // RETURNING does not keep the subquery's order, so the batch is put back in insertion order here
+    public List<OutboxMessage> claimPending(int limit, Duration lease) {
+        List<OutboxMessage> claimed = new ArrayList<>(jdbcTemplate.query(CLAIM_SQL, new MapSqlParameterSource("limit", limit)
+                .addValue("leaseSeconds", lease.toMillis() / 1000.0), ROW_MAPPER));
+        claimed.sort(Comparator.comparingLong(OutboxMessage::getId));
+        return claimed;
+    }
+
+    public int markSent(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(MARK_SENT_SQL, new MapSqlParameterSource("ids", ids));
+    }
+
+    public int markForRetry(Collection<Long> ids, int maxAttempts) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(MARK_RETRY_SQL, new MapSqlParameterSource("ids", ids)
+                .addValue("maxAttempts", maxAttempts));
+    }
+
+    public int purgeSent(Duration retention) {
+        return jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("retentionSeconds", retention.toMillis() / 1000.0));
+    }
+
+    public long countFailed() {
+        Long failed = jdbcTemplate.queryForObject(COUNT_FAILED_SQL, new MapSqlParameterSource(), Long.class);
+        return failed != null ? failed : 0;
+    }
+
+    private static SqlParameterSource toParameters(OutboxMessage message) {
+        return new MapSqlParameterSource()
+                .addValue("requestId", message.getRequestId())
+                .addValue("exchange", message.getExchange())
+                .addValue("routingKey", message.getRoutingKey())
+                .addValue("payloadType", message.getPayloadType())
+                .addValue("contentType", message.getContentType())
+                .addValue("payload", message.getPayload());
+    }
+}
@@ -0,0 +1,53 @@
+package com.onboarding.events.outbox;
+
+import com.onboarding.events.BaseEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OutboxWriter {
+    private final OutboxRepository outboxRepository;
+    private final MessageConverter messageConverter;
+
+    public OutboxWriter(OutboxRepository outboxRepository, MessageConverter messageConverter) {
+        this.outboxRepository = outboxRepository;
+        this.messageConverter = messageConverter;
+    }
+
+    // Joins the caller's transaction, so the event is only relayed if the business change commits
+    @Transactional
+    public void enqueue(String exchange, String routingKey, BaseEvent event) {
+        outboxRepository.insert(toOutboxMessage(exchange, routingKey, event));
+    }
+
+    @Transactional
+    public void enqueueAll(String exchange, List<OutboundEvent> events) {
+        List<OutboxMessage> messages = new ArrayList<>(events.size());
+        for (OutboundEvent outbound : events) {
+            messages.add(toOutboxMessage(exchange, outbound.getRoutingKey(), outbound.getEvent()));
+        }
+        outboxRepository.insertAll(messages);
+    }
+
+    private OutboxMessage toOutboxMessage(String exchange, String routingKey, BaseEvent event) {
+        // Serialize with the service's converter so consumers see exactly what a direct publish would send
+        Message message = messageConverter.toMessage(event, new MessageProperties());
+        MessageProperties properties = message.getMessageProperties();
+        Object typeId = properties.getHeaders().get(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        return new OutboxMessage(
+                0L,
+                event.getRequestId(),
+                exchange,
+                routingKey,
+                typeId != null ? typeId.toString() : null,
+                properties.getContentType(),
+                new String(message.getBody(), StandardCharsets.UTF_8)
+        );
+    }
+}
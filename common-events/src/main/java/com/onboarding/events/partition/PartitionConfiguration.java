@@ -0,0 +1,28 @@
+package com.onboarding.events.partition;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(PartitionProperties.class)
+@ConditionalOnProperty(prefix = "onboarding.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionConfiguration {
+
+    @Bean
+    public PartitionMaintainer partitionMaintainer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                                   PartitionProperties properties,
+                                                   ObjectProvider<PartitionExpiryListener> expiryListeners) {
+        return new PartitionMaintainer(jdbcTemplate, new TransactionTemplate(transactionManager), properties,
+                expiryListeners.orderedStream().toList(), Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,9 @@
+package com.onboarding.events.partition;
+
+import java.time.YearMonth;
+
+// Called in the same transaction that detaches a partition, for rows that live outside the partitioned table
+public interface PartitionExpiryListener {
+
+    void partitionExpired(String table, YearMonth month);
+}
@@ -0,0 +1,103 @@
+package com.onboarding.events.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Keeps monthly range partitions named <table>_pYYYY_MM: creates the coming months ahead of time and
+// detaches (optionally drops) the months past retention, so expiring old rows never needs a DELETE.
+public class PartitionMaintainer {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintainer.class);
+
+    // Table names are spliced into DDL, so only plain identifiers are accepted
+    private static final Pattern TABLE_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final Pattern PARTITION_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionProperties properties;
+    private final List<PartitionExpiryListener> expiryListeners;
+    private final Clock clock;
+
+    public PartitionMaintainer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               PartitionProperties properties, List<PartitionExpiryListener> expiryListeners, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.expiryListeners = expiryListeners;
+        this.clock = clock;
+        properties.getTables().keySet().forEach(table -> {
+            if (!TABLE_NAME.matcher(table).matches()) {
+                throw new IllegalArgumentException("Invalid partitioned table name: " + table);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${onboarding.partitions.check-interval:1h}")
+    public void maintain() {
+        YearMonth current = YearMonth.now(clock);
+        for (Map.Entry<String, PartitionProperties.Table> entry : properties.getTables().entrySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> maintain(entry.getKey(), entry.getValue(), current));
+            } catch (RuntimeException e) {
+                logger.error("Partition maintenance failed for table {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    private void maintain(String table, PartitionProperties.Table config, YearMonth current) {
+        // Instances racing on the same DDL would fail each other; one does the work and the rest skip this round
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class,
+                "partitions:" + table);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+
+        for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')".formatted(
+                    partitionName(table, month), table, month.atDay(1), month.plusMonths(1).atDay(1)));
+        }
+
+        if (config.getRetentionMonths() <= 0) {
+            return;
+        }
+        YearMonth oldestKept = current.minusMonths(config.getRetentionMonths());
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, table)) {
+            YearMonth month = monthOf(partition);
+            if (month != null && month.isBefore(oldestKept)) {
+                expire(table, partition, month, config.isDropExpired());
+            }
+        }
+    }
+
+    private void expire(String table, String partition, YearMonth month, boolean drop) {
+        jdbcTemplate.execute("ALTER TABLE %s DETACH PARTITION %s".formatted(table, partition));
+        if (drop) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        }
+        expiryListeners.forEach(listener -> listener.partitionExpired(table, month));
+        logger.info("{} expired partition {} of {}", drop ? "Dropped" : "Detached", partition, table);
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return "%s_p%04d_%02d".formatted(table, month.getYear(), month.getMonthValue());
+    }
+
+    static YearMonth monthOf(String partition) {
+        Matcher matcher = PARTITION_SUFFIX.matcher(partition);
+        return matcher.find() ? YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))) : null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.onboarding.events.partition;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "onboarding.partitions")
+public class PartitionProperties {
+    private boolean enabled = true;
+    private Duration checkInterval = Duration.ofHours(1);
+    // Months created ahead of the current one, so an insert never finds its partition missing
+    private int premakeMonths = 3;
+    // Monthly range-partitioned tables to maintain, by table name
+    private Map<String, Table> tables = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public int getPremakeMonths() {
+        return premakeMonths;
+    }
+
+    public void setPremakeMonths(int premakeMonths) {
+        this.premakeMonths = premakeMonths;
+    }
+
+    public Map<String, Table> getTables() {
+        return tables;
+    }
+
+    public void setTables(Map<String, Table> tables) {
+        this.tables = tables;
+    }
+
+    public static class Table {
+        // Partitions whose whole month is older than this many months are expired; 0 keeps every partition
+        private int retentionMonths = 0;
+        // Detaching leaves an expired partition behind as a standalone table to archive; dropping deletes it
+        private boolean dropExpired = false;
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public boolean isDropExpired() {
+            return dropExpired;
+        }
+
+        public void setDropExpired(boolean dropExpired) {
+            this.dropExpired = dropExpired;
+        }
+    }
+}
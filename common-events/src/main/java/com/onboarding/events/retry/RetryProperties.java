@@ -0,0 +1,32 @@
+package com.onboarding.events.retry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "onboarding.retry")
+public class RetryProperties {
+    // One retry queue per delay; a message that fails after the last tier goes to the stage's DLQ
+    private List<Duration> delays = new ArrayList<>(List.of(
+            Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(4)));
+    // How long parking a message on a retry queue waits for the broker's confirm before requeueing it instead
+    private Duration confirmTimeout = Duration.ofSeconds(5);
+
+    public List<Duration> getDelays() {
+        return delays;
+    }
+
+    public void setDelays(List<Duration> delays) {
+        this.delays = delays;
+    }
+
+    public Duration getConfirmTimeout() {
+        return confirmTimeout;
+    }
+
+    public void setConfirmTimeout(Duration confirmTimeout) {
+        this.confirmTimeout = confirmTimeout;
+    }
+}
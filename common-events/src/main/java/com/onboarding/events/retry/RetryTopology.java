@@ -0,0 +1,62 @@
+package com.onboarding.events.retry;
+
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.QueueBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class RetryTopology {
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    private final List<Duration> delays;
+    private final Duration confirmTimeout;
+    private final Set<String> queues;
+
+    public RetryTopology(RetryProperties properties, String... queues) {
+        this.delays = List.copyOf(properties.getDelays());
+        this.confirmTimeout = properties.getConfirmTimeout();
+        this.queues = Set.of(queues);
+    }
+
+    // Retry queues have no consumers: messages wait out the TTL and are dead-lettered
+    // through the default exchange straight back onto the work queue
+    public Declarables declarables() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : queues) {
+            for (Duration delay : delays) {
+                declarables.add(QueueBuilder.durable(retryQueueName(queue, delay))
+                        .ttl((int) delay.toMillis())
+                        .deadLetterExchange("")
+                        .deadLetterRoutingKey(queue)
+                        .build());
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    public boolean isRetryable(String queue) {
+        return queue != null && queues.contains(queue);
+    }
+
+    public int getMaxRetries() {
+        return delays.size();
+    }
+
+    public Duration getConfirmTimeout() {
+        return confirmTimeout;
+    }
+
+    public String retryQueueFor(String queue, int retryCount) {
+        return retryQueueName(queue, delays.get(retryCount));
+    }
+
+    // The delay is part of the name so changing a tier declares a new queue instead of
+    // failing on a mismatched x-message-ttl
+    static String retryQueueName(String queue, Duration delay) {
+        return queue + ".retry." + delay.toMillis() + "ms";
+    }
+}
@@ -0,0 +1,99 @@
+package com.onboarding.events.retry;
+
+import com.onboarding.events.error.PermanentStageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class TieredRetryMessageRecoverer implements MessageRecoverer {
+    private static final Logger logger = LoggerFactory.getLogger(TieredRetryMessageRecoverer.class);
+
+    private final RabbitOperations rabbitOperations;
+    private final RetryTopology retryTopology;
+
+    public TieredRetryMessageRecoverer(RabbitOperations rabbitOperations, RetryTopology retryTopology) {
+        this.rabbitOperations = rabbitOperations;
+        this.retryTopology = retryTopology;
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        String queue = properties.getConsumerQueue();
+        int retryCount = retryCount(message);
+
+        if (!retryTopology.isRetryable(queue) || isFatal(cause) || retryCount >= retryTopology.getMaxRetries()) {
+            // Rejected without requeue, so the work queue's own dead-letter settings route it to the DLQ
+            logger.warn("Giving up on message from {} after {} retries", queue, retryCount);
+            throw new AmqpRejectAndDontRequeueException("Retries exhausted for message from " + queue, cause);
+        }
+
+        String retryQueue = retryTopology.retryQueueFor(queue, retryCount);
+        properties.setHeader(RetryTopology.RETRY_COUNT_HEADER, retryCount + 1);
+        // The caller acks the original once this returns, so the park has to be confirmed first. A copy the broker
+        // nacked, returned as unroutable or never confirmed leaves the delivery on the work queue instead, rather
+        // than losing its remaining retries.
+        CorrelationData correlationData = new CorrelationData();
+        try {
+            rabbitOperations.send("", retryQueue, message, correlationData);
+        } catch (AmqpException e) {
+            logger.error("Could not park message from {} on {}, requeueing", queue, retryQueue, e);
+            throw new ImmediateRequeueAmqpException("Could not schedule retry", e);
+        }
+        String failure = confirmFailure(correlationData);
+        if (failure != null) {
+            logger.error("Parking message from {} on {} was not confirmed ({}), requeueing", queue, retryQueue, failure);
+            throw new ImmediateRequeueAmqpException("Retry was not confirmed: " + failure);
+        }
+        logger.info("Scheduled retry {} of {} for message from {} via {}",
+                retryCount + 1, retryTopology.getMaxRetries(), queue, retryQueue);
+    }
+
+    private String confirmFailure(CorrelationData correlationData) {
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlationData.getFuture()
+                    .get(retryTopology.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (ExecutionException | TimeoutException e) {
+            return "no confirm within " + retryTopology.getConfirmTimeout();
+        }
+        if (!confirm.isAck()) {
+            return "nacked: " + confirm.getReason();
+        }
+        if (correlationData.getReturned() != null) {
+            return "returned: " + correlationData.getReturned().getReplyText();
+        }
+        return null;
+    }
+
+    public static int retryCount(Message message) {
+        Object header = message.getMessageProperties().getHeaders().get(RetryTopology.RETRY_COUNT_HEADER);
+        return header instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static boolean isFatal(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof AmqpRejectAndDontRequeueException
+                    || t instanceof MessageConversionException
+                    || t instanceof PermanentStageException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
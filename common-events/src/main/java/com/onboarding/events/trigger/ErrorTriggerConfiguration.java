@@ -0,0 +1,17 @@
+package com.onboarding.events.trigger;
+
+import com.onboarding.events.ErrorTriggerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ErrorTriggerProperties.class)
+public class ErrorTriggerConfiguration {
+
+    // Created after ErrorTriggerProperties has been bound, so triggers are compiled once at startup
+    @Bean
+    public ErrorTriggerMatchers errorTriggerMatchers(ErrorTriggerProperties errorTriggerProperties) {
+        return new ErrorTriggerMatchers(errorTriggerProperties);
+    }
+}
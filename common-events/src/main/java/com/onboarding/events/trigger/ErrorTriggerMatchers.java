@@ -0,0 +1,52 @@
+package com.onboarding.events.trigger;
+
+import com.onboarding.events.ErrorTriggerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+// Compiled view of ErrorTriggerProperties shared by every stage's ErrorTriggerService, built once at startup
+public class ErrorTriggerMatchers {
+    private static final Logger logger = LoggerFactory.getLogger(ErrorTriggerMatchers.class);
+
+    private final TriggerMatcher kyc;
+    private final TriggerMatcher identity;
+    private final TriggerMatcher provisioning;
+    private final TriggerMatcher notification;
+
+    public ErrorTriggerMatchers(ErrorTriggerProperties properties) {
+        ErrorTriggerProperties.KycTriggers kycTriggers = properties.getKyc();
+        ErrorTriggerProperties.IdentityTriggers identityTriggers = properties.getIdentity();
+        ErrorTriggerProperties.ProvisioningTriggers provisioningTriggers = properties.getProvisioning();
+        ErrorTriggerProperties.NotificationTriggers notificationTriggers = properties.getNotification();
+        this.kyc = TriggerMatcher.compile(kycTriggers.getBlacklistCustomerIds(), patterns(kycTriggers.getFailurePattern()));
+        this.identity = TriggerMatcher.compile(identityTriggers.getFailureCustomerIds(),
+                patterns(identityTriggers.getFailurePattern()));
+        this.provisioning = TriggerMatcher.compile(provisioningTriggers.getFailureCustomerIds(),
+                patterns(provisioningTriggers.getFailurePattern()));
+        this.notification = TriggerMatcher.compile(notificationTriggers.getBounceEmails(),
+                patterns(notificationTriggers.getFailurePattern()));
+        logger.info("Compiled error triggers");
+    }
+
+    public TriggerMatcher kyc() {
+        return kyc;
+    }
+
+    public TriggerMatcher identity() {
+        return identity;
+    }
+
+    public TriggerMatcher provisioning() {
+        return provisioning;
+    }
+
+    public TriggerMatcher notification() {
+        return notification;
+    }
+
+    private static List<String> patterns(String pattern) {
+        return pattern != null ? List.of(pattern) : List.of();
+    }
+}
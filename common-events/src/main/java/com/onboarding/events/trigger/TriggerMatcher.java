@@ -0,0 +1,100 @@
+package com.onboarding.events.trigger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Immutable, precompiled form of one stage's trigger configuration. matches() only does a hash
+// lookup and plain string comparisons, so it allocates nothing on the message path.
+public final class TriggerMatcher {
+    public static final TriggerMatcher NONE = new TriggerMatcher(Set.of(), new Glob[0]);
+
+    private final Set<String> values;
+    private final Glob[] globs;
+
+    private TriggerMatcher(Set<String> values, Glob[] globs) {
+        this.values = values;
+        this.globs = globs;
+    }
+
+    // Patterns only support the * wildcard; one without a wildcard is treated as an exact value
+    public static TriggerMatcher compile(Collection<String> values, Collection<String> patterns) {
+        Set<String> exact = new HashSet<>();
+        List<Glob> globs = new ArrayList<>();
+        if (values != null) {
+            values.stream().filter(value -> value != null && !value.isEmpty()).forEach(exact::add);
+        }
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern == null || pattern.isBlank()) {
+                    continue;
+                }
+                if (pattern.indexOf('*') < 0) {
+                    exact.add(pattern);
+                } else {
+                    globs.add(Glob.compile(pattern));
+                }
+            }
+        }
+        if (exact.isEmpty() && globs.isEmpty()) {
+            return NONE;
+        }
+        // Kept as a HashSet: Set.copyOf probes linearly, and sequential IDs such as FAIL-001..FAIL-999
+        // have sequential hash codes, so misses would walk long runs of occupied slots
+        return new TriggerMatcher(exact, globs.toArray(new Glob[0]));
+    }
+
+    public boolean matches(String value) {
+        if (value == null) {
+            return false;
+        }
+        if (values.contains(value)) {
+            return true;
+        }
+        for (Glob glob : globs) {
+            if (glob.matches(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty() && globs.length == 0;
+    }
+
+    // A*B*C: starts with A, ends with C, and contains B in between
+    private record Glob(String prefix, String suffix, String[] middle, int minLength) {
+
+        static Glob compile(String pattern) {
+            String[] parts = pattern.split("\\*", -1);
+            List<String> middle = new ArrayList<>();
+            int minLength = 0;
+            for (int i = 0; i < parts.length; i++) {
+                minLength += parts[i].length();
+                if (i > 0 && i < parts.length - 1 && !parts[i].isEmpty()) {
+                    middle.add(parts[i]);
+                }
+            }
+            return new Glob(parts[0], parts[parts.length - 1], middle.toArray(new String[0]), minLength);
+        }
+
+        boolean matches(String value) {
+            if (value.length() < minLength || !value.startsWith(prefix) || !value.endsWith(suffix)) {
+                return false;
+            }
+            int from = prefix.length();
+            int end = value.length() - suffix.length();
+            for (String part : middle) {
+                int index = value.indexOf(part, from);
+                if (index < 0 || index + part.length() > end) {
+                    return false;
+                }
+                from = index + part.length();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- Repeatable and written with IF NOT EXISTS: every service that relays an outbox applies it against the
+-- shared database, each with its own Flyway history table
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    request_id VARCHAR(255),
+    exchange VARCHAR(255) NOT NULL,
+    routing_key VARCHAR(255) NOT NULL,
+    payload_type VARCHAR(255),
+    content_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    sent_at TIMESTAMP
+);
+
+-- OutboxRelay's claim lease: a PENDING row is only claimed once this has passed
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events (id) WHERE status = 'PENDING';
+-- For OutboxRelay's retention purge and its count of FAILED rows
+CREATE INDEX IF NOT EXISTS idx_outbox_events_sent_at ON outbox_events (sent_at) WHERE status = 'SENT';
+CREATE INDEX IF NOT EXISTS idx_outbox_events_failed ON outbox_events (id) WHERE status = 'FAILED';
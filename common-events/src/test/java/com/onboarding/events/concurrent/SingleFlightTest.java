@@ -0,0 +1,73 @@
+package com.onboarding.events.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+    }
+
+    @Test
+    void testConcurrentCallsForSameKeyShareOneExecution() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> underlying = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("CUST-1", () -> {
+            calls.incrementAndGet();
+            return underlying;
+        });
+        CompletableFuture<String> second = singleFlight.execute("CUST-1", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        underlying.complete("result");
+
+        assertEquals(1, calls.get());
+        assertEquals("result", first.join());
+        assertEquals("result", second.join());
+        assertEquals(0, singleFlight.inFlight());
+        assertEquals(1.0, meterRegistry.get("onboarding.singleflight.calls").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void testDifferentKeysAndLaterCallsExecuteIndependently() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("CUST-1", () -> CompletableFuture.completedFuture("a" + calls.incrementAndGet())).join();
+        singleFlight.execute("CUST-2", () -> CompletableFuture.completedFuture("b" + calls.incrementAndGet())).join();
+        String again = singleFlight.execute("CUST-1", () -> CompletableFuture.completedFuture("c" + calls.incrementAndGet())).join();
+
+        assertEquals(3, calls.get());
+        assertEquals("c3", again);
+        assertEquals(3.0, meterRegistry.get("onboarding.singleflight.calls").tag("result", "executed").counter().count());
+    }
+
+    @Test
+    void testFailureIsSharedAndReleasesKey() {
+        CompletableFuture<String> underlying = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("CUST-1", () -> underlying);
+        CompletableFuture<String> second = singleFlight.execute("CUST-1", () -> underlying);
+        underlying.completeExceptionally(new IllegalStateException("provider down"));
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, second::join).getCause());
+        assertThrows(IllegalStateException.class, () -> singleFlight.executeBlocking("CUST-1", () -> {
+            throw new IllegalStateException("still down");
+        }));
+        assertEquals(0, singleFlight.inFlight());
+    }
+}
@@ -0,0 +1,110 @@
+package com.onboarding.events.fault;
+
+import com.onboarding.events.error.TransientStageException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FaultInjectorTest {
+
+    private FaultInjectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FaultInjectionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testUnconfiguredOrDisabledStagesPassThrough() {
+        FaultInjectionProperties.Stage kyc = new FaultInjectionProperties.Stage();
+        kyc.setErrorRate(1.0);
+        properties.getStages().put("kyc", kyc);
+        FaultInjector injector = new FaultInjector(properties, meterRegistry);
+
+        assertEquals("ok", injector.call("kyc", () -> "ok"));
+        assertEquals("ok", injector.call("identity", () -> "ok"));
+    }
+
+    @Test
+    void testErrorRateFailsCallsWithTransientError() {
+        FaultInjectionProperties.Stage kyc = new FaultInjectionProperties.Stage();
+        kyc.setEnabled(true);
+        kyc.setErrorRate(1.0);
+        properties.getStages().put("kyc", kyc);
+        FaultInjector injector = new FaultInjector(properties, meterRegistry);
+
+        TransientStageException e = assertThrows(TransientStageException.class, () -> injector.apply("kyc"));
+        assertEquals("FAULT_INJECTED", e.getErrorCode());
+        CompletableFuture<String> async = injector.callAsync("kyc", () -> CompletableFuture.completedFuture("ok"));
+        assertInstanceOf(TransientStageException.class, assertThrows(CompletionException.class, async::join).getCause());
+        assertEquals(2.0, meterRegistry.get("onboarding.faults.injected").tag("type", "error").counter().count());
+    }
+
+    @Test
+    void testHistogramSamplesStayWithinConfiguredPercentiles() {
+        FaultInjectionProperties.Latency latency = new FaultInjectionProperties.Latency();
+        latency.setDistribution(FaultInjectionProperties.Distribution.HISTOGRAM);
+        latency.setMin(Duration.ofMillis(10));
+        latency.getPercentiles().put(50.0, Duration.ofMillis(20));
+        latency.getPercentiles().put(99.0, Duration.ofMillis(100));
+        latency.getPercentiles().put(100.0, Duration.ofMillis(400));
+        LatencyModel model = LatencyModel.of(latency);
+
+        int belowMedian = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long millis = Duration.ofNanos(model.sampleNanos()).toMillis();
+            assertTrue(millis >= 10 && millis <= 400, "sample out of range: " + millis);
+            if (millis <= 20) {
+                belowMedian++;
+            }
+        }
+        assertTrue(belowMedian > 4_500 && belowMedian < 5_500, "median off: " + belowMedian);
+    }
+
+    @Test
+    void testRuntimeBrownoutAndReset() {
+        FaultInjector injector = new FaultInjector(properties, meterRegistry);
+
+        injector.update("notification", true, 0.0, null, Duration.ofMinutes(1));
+        assertEquals(true, ((Map<?, ?>) injector.describe("notification").get("brownout")).get("active"));
+        // Brownout error rate defaults to 0.5, so some of these calls fail
+        int failures = 0;
+        for (int i = 0; i < 200; i++) {
+            try {
+                injector.apply("notification");
+            } catch (TransientStageException e) {
+                failures++;
+            }
+        }
+        assertTrue(failures > 50 && failures < 150, "unexpected failures: " + failures);
+
+        injector.reset("notification");
+        injector.apply("notification");
+        assertEquals(false, injector.describe("notification").get("enabled"));
+    }
+
+    @Test
+    void testEndpointIsOnlyRegisteredWhenEnabled() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withUserConfiguration(FaultInjectionConfiguration.class);
+
+        runner.run(context -> {
+            assertEquals(1, context.getBeansOfType(FaultInjector.class).size());
+            assertTrue(context.getBeansOfType(FaultInjectionEndpoint.class).isEmpty());
+        });
+        runner.withPropertyValues("onboarding.faults.enabled=true")
+                .run(context -> assertEquals(1, context.getBeansOfType(FaultInjectionEndpoint.class).size()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.onboarding.events.jdbc;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionHoldMetricsTest {
+
+    @Test
+    void testHoldTimeIsRecordedOnceUnderTheDeclaredOperation() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Connection pooled = mock(Connection.class);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(pooled);
+        ConnectionHoldDataSource dataSource = new ConnectionHoldDataSource(target, new ConnectionHoldMetrics(meterRegistry));
+
+        Connection connection = ConnectionHoldMetrics.during("account-insert", () -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        connection.close();
+        connection.close();
+        dataSource.getConnection().close();
+
+        verify(pooled, times(3)).close();
+        Timer named = meterRegistry.get(ConnectionHoldMetrics.METRIC).tag("operation", "account-insert").timer();
+        Timer unnamed = meterRegistry.get(ConnectionHoldMetrics.METRIC).tag("operation", ConnectionHoldMetrics.UNNAMED).timer();
+        assertEquals(1, named.count());
+        assertEquals(1, unnamed.count());
+    }
+}
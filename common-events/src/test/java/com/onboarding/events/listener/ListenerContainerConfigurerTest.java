@@ -0,0 +1,64 @@
+package com.onboarding.events.listener;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ListenerContainerConfigurerTest {
+
+    @Test
+    void testVirtualThreadsAndPerQueueConcurrency() {
+        ListenerProperties properties = new ListenerProperties();
+        properties.setConcurrency(5);
+        properties.setMaxConcurrency(10);
+        properties.setQueueConcurrency(Map.of("kyc.queue", 2000));
+
+        SimpleRabbitListenerContainerFactory factory = factory(properties,
+                new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+
+        SimpleMessageListenerContainer kyc = factory.createListenerContainer(endpoint("kyc.queue"));
+        SimpleMessageListenerContainer other = factory.createListenerContainer(endpoint("kyc.dlq"));
+
+        assertInstanceOf(VirtualThreadTaskExecutor.class, ReflectionTestUtils.getField(kyc, "taskExecutor"));
+        assertEquals(2000, ReflectionTestUtils.getField(kyc, "concurrentConsumers"));
+        assertEquals(2000, ReflectionTestUtils.getField(kyc, "maxConcurrentConsumers"));
+        assertEquals(5, ReflectionTestUtils.getField(other, "concurrentConsumers"));
+        assertEquals(10, ReflectionTestUtils.getField(other, "maxConcurrentConsumers"));
+    }
+
+    @Test
+    void testPlatformThreadsByDefault() {
+        SimpleRabbitListenerContainerFactory factory = factory(new ListenerProperties(), new MockEnvironment());
+
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint("kyc.queue"));
+
+        assertFalse(ReflectionTestUtils.getField(container, "taskExecutor") instanceof VirtualThreadTaskExecutor);
+        assertEquals(1, ReflectionTestUtils.getField(container, "concurrentConsumers"));
+    }
+
+    private static SimpleRabbitListenerContainerFactory factory(ListenerProperties properties, MockEnvironment environment) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(mock(ConnectionFactory.class));
+        ListenerContainerConfigurer.configure(factory, properties, environment);
+        return factory;
+    }
+
+    private static RabbitListenerEndpoint endpoint(String queue) {
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId(queue);
+        endpoint.setQueueNames(queue);
+        endpoint.setMessageListener(message -> { });
+        return endpoint;
+    }
+}
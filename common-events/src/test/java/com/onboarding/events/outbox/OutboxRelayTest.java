@@ -0,0 +1,147 @@
+package com.onboarding.events.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxRepository outboxRepository;
+    private RabbitTemplate rabbitTemplate;
+    private PlatformTransactionManager transactionManager;
+    private OutboxProperties properties;
+    private OutboxRelay outboxRelay;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(OutboxRepository.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                ((RabbitOperations.OperationsCallback<Object>) invocation.getArgument(0)).doInRabbit(rabbitTemplate));
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        properties = new OutboxProperties();
+        properties.setBatchSize(10);
+        outboxRelay = new OutboxRelay(outboxRepository, rabbitTemplate,
+                new TransactionTemplate(transactionManager), properties, meterRegistry);
+    }
+
+    @Test
+    void testRelayBatchMarksConfirmedSentAndNackedForRetry() {
+        when(outboxRepository.claimPending(10, Duration.ofMinutes(1))).thenReturn(List.of(message(1L), message(2L)));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            boolean ack = correlationData.getId().equals("outbox-1");
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertEquals(2, relayed);
+        verify(outboxRepository).markSent(List.of(1L));
+        verify(outboxRepository).markForRetry(List.of(2L), 10);
+
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2)).send(eq("onboarding.exchange"), eq("onboarding.failed"), captor.capture(), any(CorrelationData.class));
+        Message sent = captor.getAllValues().get(0);
+        assertEquals("outbox-1", sent.getMessageProperties().getMessageId());
+        assertEquals("com.onboarding.events.OnboardingFailedEvent", sent.getMessageProperties().getHeaders().get("__TypeId__"));
+    }
+
+    @Test
+    void testClaimCommitsBeforePublishingAndUnconfirmedEventsShareOneDeadline() {
+        properties.setConfirmTimeout(Duration.ofMillis(300));
+        List<OutboxMessage> batch = List.of(message(1L), message(2L), message(3L), message(4L), message(5L));
+        when(outboxRepository.claimPending(10, Duration.ofMinutes(1))).thenReturn(batch);
+
+        long started = System.nanoTime();
+        outboxRelay.relayBatch();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Never confirmed: waiting 300ms per event would take 1.5s
+        assertTrue(elapsedMillis < 1_000, "waited " + elapsedMillis + "ms");
+        verify(outboxRepository).markForRetry(List.of(1L, 2L, 3L, 4L, 5L), 10);
+        InOrder inOrder = inOrder(outboxRepository, transactionManager, rabbitTemplate);
+        inOrder.verify(outboxRepository).claimPending(10, Duration.ofMinutes(1));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(rabbitTemplate).invoke(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxRepository).markSent(List.of());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testRelayBatchRetriesWholeBatchWhenBrokerUnavailable() {
+        when(outboxRepository.claimPending(10, Duration.ofMinutes(1))).thenReturn(List.of(message(1L), message(2L)));
+        doThrow(new AmqpConnectException(new RuntimeException("down"))).when(rabbitTemplate).invoke(any());
+
+        outboxRelay.relayBatch();
+
+        verify(outboxRepository).markSent(List.of());
+        verify(outboxRepository).markForRetry(List.of(1L, 2L), 10);
+    }
+
+    @Test
+    void testRelayBatchWithNothingPending() {
+        when(outboxRepository.claimPending(10, Duration.ofMinutes(1))).thenReturn(List.of());
+
+        assertEquals(0, outboxRelay.relayBatch());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void testReturnedEventIsRetriedEvenThoughTheBrokerAcked() {
+        when(outboxRepository.claimPending(10, Duration.ofMinutes(1))).thenReturn(List.of(message(1L)));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            // Unroutable: with mandatory set the broker returns it, then acks
+            correlationData.setReturned(new ReturnedMessage(invocation.getArgument(2), 312, "NO_ROUTE",
+                    "onboarding.exchange", "onboarding.failed"));
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        outboxRelay.relayBatch();
+
+        verify(outboxRepository).markSent(List.of());
+        verify(outboxRepository).markForRetry(List.of(1L), 10);
+    }
+
+    @Test
+    void testPurgesRelayedEventsAndReportsFailedOnes() {
+        when(outboxRepository.countFailed()).thenReturn(3L);
+
+        outboxRelay.purgeSent();
+        outboxRelay.refreshFailedCount();
+
+        verify(outboxRepository).purgeSent(Duration.ofDays(7));
+        assertEquals(3, meterRegistry.get("onboarding.outbox.events.failed").gauge().value());
+    }
+
+    private static OutboxMessage message(long id) {
+        return new OutboxMessage(id, "REQ-" + id, "onboarding.exchange", "onboarding.failed",
+                "com.onboarding.events.OnboardingFailedEvent", "application/json", "{\"requestId\":\"REQ-" + id + "\"}");
+    }
+}
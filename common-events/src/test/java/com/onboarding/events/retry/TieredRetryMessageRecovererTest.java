@@ -0,0 +1,143 @@
+package com.onboarding.events.retry;
+
+import com.onboarding.events.error.PermanentStageException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TieredRetryMessageRecovererTest {
+
+    private RabbitOperations rabbitOperations;
+    private RetryTopology retryTopology;
+    private TieredRetryMessageRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        rabbitOperations = mock(RabbitOperations.class);
+        RetryProperties properties = new RetryProperties();
+        properties.setConfirmTimeout(Duration.ofMillis(200));
+        retryTopology = new RetryTopology(properties, "kyc.queue");
+        recoverer = new TieredRetryMessageRecoverer(rabbitOperations, retryTopology);
+    }
+
+    @Test
+    void testDeclaresOneTtlQueuePerTierDeadLetteringBackToWorkQueue() {
+        Declarables declarables = retryTopology.declarables();
+
+        Queue tier2 = declarables.getDeclarablesByType(Queue.class).stream()
+                .filter(q -> q.getName().equals("kyc.queue.retry.2000ms"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, declarables.getDeclarablesByType(Queue.class).size());
+        assertEquals(2000, tier2.getArguments().get("x-message-ttl"));
+        assertEquals("", tier2.getArguments().get("x-dead-letter-exchange"));
+        assertEquals("kyc.queue", tier2.getArguments().get("x-dead-letter-routing-key"));
+    }
+
+    @Test
+    void testFailureIsParkedOnNextTierWithIncrementedRetryCount() {
+        Message message = message("kyc.queue", 1);
+        confirmWith(new CorrelationData.Confirm(true, null));
+
+        recoverer.recover(message, new RuntimeException("provider timeout"));
+
+        verify(rabbitOperations).send(eq(""), eq("kyc.queue.retry.2000ms"), eq(message), any(CorrelationData.class));
+        assertEquals(2, TieredRetryMessageRecoverer.retryCount(message));
+    }
+
+    @Test
+    void testRequeuesWhenTheParkIsNackedOrNeverConfirmed() {
+        confirmWith(new CorrelationData.Confirm(false, "queue full"));
+        assertThrows(ImmediateRequeueAmqpException.class,
+                () -> recoverer.recover(message("kyc.queue", 0), new RuntimeException("provider timeout")));
+
+        // No confirm at all: the wait ends at the confirm timeout
+        doNothing().when(rabbitOperations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        assertThrows(ImmediateRequeueAmqpException.class,
+                () -> recoverer.recover(message("kyc.queue", 0), new RuntimeException("provider timeout")));
+    }
+
+    @Test
+    void testRequeuesWhenTheParkIsReturnedAsUnroutable() {
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.setReturned(new ReturnedMessage(invocation.getArgument(2), 312, "NO_ROUTE",
+                    "", "kyc.queue.retry.1000ms"));
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitOperations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        assertThrows(ImmediateRequeueAmqpException.class,
+                () -> recoverer.recover(message("kyc.queue", 0), new RuntimeException("provider timeout")));
+    }
+
+    @Test
+    void testExhaustedRetriesAreRejectedToDlq() {
+        Message message = message("kyc.queue", 3);
+
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> recoverer.recover(message, new RuntimeException("provider timeout")));
+        verifyNoInteractions(rabbitOperations);
+    }
+
+    @Test
+    void testUnconvertibleMessageIsRejectedWithoutRetry() {
+        Message message = message("kyc.queue", 0);
+
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> recoverer.recover(message, new MessageConversionException("bad payload")));
+        verifyNoInteractions(rabbitOperations);
+    }
+
+    @Test
+    void testPermanentFailureIsRejectedWithoutRetry() {
+        Message message = message("kyc.queue", 0);
+
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> recoverer.recover(message, new RuntimeException(new PermanentStageException("KYC_BLACKLISTED", "blacklisted"))));
+        verifyNoInteractions(rabbitOperations);
+    }
+
+    @Test
+    void testRequeuesWhenRetryCannotBeScheduled() {
+        doThrow(new AmqpConnectException(new RuntimeException("down")))
+                .when(rabbitOperations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        assertThrows(ImmediateRequeueAmqpException.class,
+                () -> recoverer.recover(message("kyc.queue", 0), new RuntimeException("provider timeout")));
+    }
+
+    private void confirmWith(CorrelationData.Confirm confirm) {
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(3).getFuture().complete(confirm);
+            return null;
+        }).when(rabbitOperations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private static Message message(String queue, int retryCount) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(queue);
+        if (retryCount > 0) {
+            properties.setHeader(RetryTopology.RETRY_COUNT_HEADER, retryCount);
+        }
+        return new Message("{}".getBytes(), properties);
+    }
+}
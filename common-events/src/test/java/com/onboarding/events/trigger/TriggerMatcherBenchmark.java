@@ -0,0 +1,71 @@
+package com.onboarding.events.trigger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Trigger check as every stage ran it before (List.contains plus a regex compiled per call)
+// against the precompiled TriggerMatcher. Run with -prof gc to compare allocation per call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerMatcherBenchmark {
+
+    @Param({"10", "1000"})
+    private int configuredIds;
+
+    private List<String> ids;
+    private String pattern;
+    private TriggerMatcher matcher;
+    private String[] customerIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ids = new ArrayList<>();
+        for (int i = 0; i < configuredIds; i++) {
+            ids.add("BLACKLIST-" + i);
+        }
+        pattern = "FAIL-KYC-*";
+        matcher = TriggerMatcher.compile(ids, List.of(pattern));
+        // Mostly regular customers, as on the real message path
+        customerIds = new String[64];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = i % 16 == 0 ? "FAIL-KYC-" + i : "CUST-" + (100_000 + i);
+        }
+    }
+
+    @Benchmark
+    public boolean perCallRegex() {
+        String customerId = nextCustomerId();
+        if (ids.contains(customerId)) {
+            return true;
+        }
+        return customerId.matches(pattern.replace("*", ".*"));
+    }
+
+    @Benchmark
+    public boolean compiledMatcher() {
+        return matcher.matches(nextCustomerId());
+    }
+
+    private String nextCustomerId() {
+        next = (next + 1) & (customerIds.length - 1);
+        return customerIds[next];
+    }
+}
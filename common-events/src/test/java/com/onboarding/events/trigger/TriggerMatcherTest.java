@@ -0,0 +1,48 @@
+package com.onboarding.events.trigger;
+
+import com.onboarding.events.ErrorTriggerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriggerMatcherTest {
+
+    @Test
+    void testMatchesExactValuesAndWildcardPatterns() {
+        TriggerMatcher matcher = TriggerMatcher.compile(List.of("BLACKLIST-001"),
+                List.of("FAIL-KYC-*", "*@bounce.test", "A*B*C", "EXACT"));
+
+        assertTrue(matcher.matches("BLACKLIST-001"));
+        assertTrue(matcher.matches("FAIL-KYC-"));
+        assertTrue(matcher.matches("FAIL-KYC-123"));
+        assertTrue(matcher.matches("user@bounce.test"));
+        assertTrue(matcher.matches("AxxBxxC"));
+        assertTrue(matcher.matches("ABC"));
+        assertTrue(matcher.matches("EXACT"));
+
+        assertFalse(matcher.matches("CUST-123"));
+        assertFalse(matcher.matches("XFAIL-KYC-1"));
+        assertFalse(matcher.matches("user@bounce.testing"));
+        assertFalse(matcher.matches("ACB"));
+        assertFalse(matcher.matches("EXACTLY"));
+        assertFalse(matcher.matches(null));
+        // Wildcards are the only special character
+        assertFalse(TriggerMatcher.compile(List.of(), List.of("a.c*")).matches("abc"));
+    }
+
+    @Test
+    void testEachStageMatchesOnlyItsOwnTriggers() {
+        ErrorTriggerProperties properties = new ErrorTriggerProperties();
+        assertTrue(new ErrorTriggerMatchers(properties).kyc().isEmpty());
+
+        properties.getKyc().getBlacklistCustomerIds().add("BLACKLIST-001");
+        properties.getNotification().setFailurePattern("bounce*@example.com");
+        ErrorTriggerMatchers matchers = new ErrorTriggerMatchers(properties);
+
+        assertTrue(matchers.kyc().matches("BLACKLIST-001"));
+        assertTrue(matchers.notification().matches("bounce1@example.com"));
+        assertFalse(matchers.identity().matches("BLACKLIST-001"));
+    }
+}
@@ -3,16 +3,21 @@ package com.onboarding.completion.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.listener.ListenerContainerConfigurer;
+import com.onboarding.events.listener.ListenerProperties;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
+@EnableConfigurationProperties(ListenerProperties.class)
 public class RabbitMQConfig {
     public static final String EXCHANGE_NAME = "onboarding.exchange";
     public static final String QUEUE_NAME = "completion.queue";
@@ -50,10 +55,13 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               ListenerProperties listenerProperties,
+                                                                               Environment environment) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
+        ListenerContainerConfigurer.configure(factory, listenerProperties, environment);
         return factory;
     }
 }
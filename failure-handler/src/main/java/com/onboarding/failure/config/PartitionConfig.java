@@ -0,0 +1,10 @@
+package com.onboarding.failure.config;
+
+import com.onboarding.events.partition.PartitionConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import(PartitionConfiguration.class)
+public class PartitionConfig {
+}
@@ -1,6 +1,7 @@
 package com.onboarding.failure.listener;
 
 import com.onboarding.events.*;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
 import com.onboarding.failure.config.RabbitMQConfig;
 import com.onboarding.failure.service.FailureHandlerService;
 import org.slf4j.Logger;
@@ -53,15 +54,17 @@ public class DlqEventListener {
             // Extract original message and routing key
             String originalRoutingKey = (String) message.getMessageProperties().getHeaders().get("x-original-routing-key");
             String requestId = extractRequestId(message);
+            // Set by the stage's tiered retry recoverer each time the message was parked for retry
+            int retryCount = TieredRetryMessageRecoverer.retryCount(message);
 
-            logger.error("Processing failed message from {} service DLQ. RequestId: {}, OriginalRoutingKey: {}",
-                    serviceName, requestId, originalRoutingKey);
+            logger.error("Processing failed message from {} service DLQ. RequestId: {}, OriginalRoutingKey: {}, Retries: {}",
+                    serviceName, requestId, originalRoutingKey, retryCount);
 
             // Record failure in database
-            failureHandlerService.recordFailure(requestId, serviceName, "Processing failed after retries", 3);
+            failureHandlerService.recordFailure(requestId, serviceName, "Processing failed after retries", retryCount);
 
             // Publish appropriate failure event
-            BaseFailureEvent failureEvent = createFailureEvent(serviceName, requestId, originalRoutingKey);
+            BaseFailureEvent failureEvent = createFailureEvent(serviceName, requestId, retryCount);
             if (failureEvent != null) {
                 String routingKey = getFailureRoutingKey(serviceName);
                 rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, routingKey, failureEvent);
@@ -103,16 +106,16 @@ public class DlqEventListener {
         return "UNKNOWN";
     }
 
-    private BaseFailureEvent createFailureEvent(String serviceName, String requestId, String originalRoutingKey) {
+    private BaseFailureEvent createFailureEvent(String serviceName, String requestId, int retryCount) {
         switch (serviceName) {
             case "KYC":
-                return new KYCFailedEvent(requestId, "KYC_FAILED", "KYC processing failed after retries", 3);
+                return new KYCFailedEvent(requestId, "KYC_FAILED", "KYC processing failed after retries", retryCount);
             case "IDENTITY":
-                return new IdentityVerificationFailedEvent(requestId, "IDENTITY_VERIFICATION_FAILED", "Identity verification failed after retries", 3);
+                return new IdentityVerificationFailedEvent(requestId, "IDENTITY_VERIFICATION_FAILED", "Identity verification failed after retries", retryCount);
             case "PROVISIONING":
-                return new ProvisioningFailedEvent(requestId, "PROVISIONING_FAILED", "Account provisioning failed after retries", 3);
+                return new ProvisioningFailedEvent(requestId, "PROVISIONING_FAILED", "Account provisioning failed after retries", retryCount);
             case "NOTIFICATION":
-                return new NotificationFailedEvent(requestId, "NOTIFICATION_FAILED", "Notification sending failed after retries", 3);
+                return new NotificationFailedEvent(requestId, "NOTIFICATION_FAILED", "Notification sending failed after retries", retryCount);
             default:
                 return null;
         }
@@ -4,9 +4,11 @@ import com.onboarding.failure.model.OnboardingFailure;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OnboardingFailureRepository extends JpaRepository<OnboardingFailure, Long> {
-    List<OnboardingFailure> findByRequestId(String requestId);
+    // onboarding_failures is partitioned by failed_at; the lower bound lets Postgres skip older partitions
+    List<OnboardingFailure> findByRequestIdAndFailedAtGreaterThanEqual(String requestId, LocalDateTime since);
 }
@@ -1,11 +1,12 @@
 package com.onboarding.failure.service;
 
 import com.onboarding.events.*;
+import com.onboarding.events.outbox.OutboxWriter;
+import com.onboarding.failure.config.RabbitMQConfig;
 import com.onboarding.failure.model.OnboardingFailure;
 import com.onboarding.failure.repository.OnboardingFailureRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,11 +15,11 @@ public class FailureHandlerService {
     private static final Logger logger = LoggerFactory.getLogger(FailureHandlerService.class);
 
     private final OnboardingFailureRepository failureRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxWriter outboxWriter;
 
-    public FailureHandlerService(OnboardingFailureRepository failureRepository, RabbitTemplate rabbitTemplate) {
+    public FailureHandlerService(OnboardingFailureRepository failureRepository, OutboxWriter outboxWriter) {
         this.failureRepository = failureRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxWriter = outboxWriter;
     }
 
     @Transactional
@@ -57,8 +58,9 @@ public class FailureHandlerService {
 
     private void publishOnboardingFailed(String requestId, String failedStage, String errorCode, String errorMessage, int retryCount) {
         OnboardingFailedEvent failedEvent = new OnboardingFailedEvent(requestId, failedStage, errorCode, errorMessage, retryCount);
-        rabbitTemplate.convertAndSend("onboarding.exchange", EventRoutingKeys.ONBOARDING_FAILED, failedEvent);
-        logger.info("Published OnboardingFailedEvent for requestId: {}", requestId);
+        // Written in the same transaction as the failure record; the outbox relay publishes it after commit
+        outboxWriter.enqueue(RabbitMQConfig.EXCHANGE_NAME, EventRoutingKeys.ONBOARDING_FAILED, failedEvent);
+        logger.info("Queued OnboardingFailedEvent for requestId: {}", requestId);
     }
 
     @Transactional
@@ -0,0 +1,16 @@
+-- IF NOT EXISTS throughout so a database previously managed by ddl-auto=update is taken over in place
+
+CREATE TABLE IF NOT EXISTS onboarding_failures (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    request_id VARCHAR(255) NOT NULL,
+    stage VARCHAR(255) NOT NULL,
+    error_code VARCHAR(255) NOT NULL,
+    error_message TEXT,
+    retry_count INTEGER NOT NULL,
+    failed_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_onboarding_failures_request_id ON onboarding_failures (request_id);
+-- Serves both per-stage queries over a time range and plain time-range scans by stage
+CREATE INDEX IF NOT EXISTS idx_onboarding_failures_stage_failed_at ON onboarding_failures (stage, failed_at);
+CREATE INDEX IF NOT EXISTS idx_onboarding_failures_failed_at ON onboarding_failures (failed_at);
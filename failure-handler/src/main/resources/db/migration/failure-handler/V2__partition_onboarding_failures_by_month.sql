@@ -0,0 +1,41 @@
+-- onboarding_failures becomes range-partitioned by failed_at month, so retention is a partition drop instead of
+-- a DELETE. The primary key has to include the partition key; ids stay unique through their sequence.
+
+CREATE SEQUENCE onboarding_failures_id_seq_partitioned;
+
+CREATE TABLE onboarding_failures_partitioned (
+    id BIGINT NOT NULL DEFAULT nextval('onboarding_failures_id_seq_partitioned'),
+    request_id VARCHAR(255) NOT NULL,
+    stage VARCHAR(255) NOT NULL,
+    error_code VARCHAR(255) NOT NULL,
+    error_message TEXT,
+    retry_count INTEGER NOT NULL,
+    failed_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, failed_at)
+) PARTITION BY RANGE (failed_at);
+
+-- Every month that has rows, through two months ahead; PartitionMaintainer keeps creating them from here
+DO $$
+DECLARE
+    month DATE := date_trunc('month', LEAST(COALESCE((SELECT MIN(failed_at) FROM onboarding_failures), now()), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + INTERVAL '2 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF onboarding_failures_partitioned FOR VALUES FROM (%L) TO (%L)',
+                'onboarding_failures_p' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO onboarding_failures_partitioned (id, request_id, stage, error_code, error_message, retry_count, failed_at)
+SELECT id, request_id, stage, error_code, error_message, retry_count, failed_at FROM onboarding_failures;
+
+SELECT setval('onboarding_failures_id_seq_partitioned', (SELECT COALESCE(MAX(id), 0) + 1 FROM onboarding_failures), false);
+
+DROP TABLE onboarding_failures;
+ALTER TABLE onboarding_failures_partitioned RENAME TO onboarding_failures;
+ALTER TABLE onboarding_failures RENAME CONSTRAINT onboarding_failures_partitioned_pkey TO onboarding_failures_pkey;
+ALTER SEQUENCE onboarding_failures_id_seq_partitioned RENAME TO onboarding_failures_id_seq;
+ALTER SEQUENCE onboarding_failures_id_seq OWNED BY onboarding_failures.id;
+
+CREATE INDEX idx_onboarding_failures_request_id ON onboarding_failures (request_id);
+CREATE INDEX idx_onboarding_failures_stage_failed_at ON onboarding_failures (stage, failed_at);
@@ -0,0 +1,79 @@
+package com.onboarding.failure.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the failure-handler migrations against a real (embedded) Postgres and checks the entities validate against them
+class SchemaMigrationTest {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO onboarding_failures (request_id, stage, error_code, error_message, retry_count, failed_at) " +
+            "VALUES (?, 'KYC', 'KYC_FAILED', 'failed', 0, now()) RETURNING id";
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static long legacyId;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // A row from before onboarding_failures was partitioned has to come through the later migrations
+        flyway("1").migrate();
+        legacyId = jdbcTemplate.queryForObject(INSERT_SQL, Long.class, "REQ-LEGACY");
+        flyway("latest").migrate();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void testEntitiesValidateAgainstMigratedSchema() {
+        LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setPackagesToScan("com.onboarding.failure.model");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Spring Boot's column naming, as the service runs with it
+        entityManagerFactory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "validate",
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName()));
+
+        assertDoesNotThrow(entityManagerFactory::afterPropertiesSet);
+        entityManagerFactory.destroy();
+    }
+
+    @Test
+    void testExistingFailuresAreKeptAndIdsContinuePastThem() {
+        long newId = jdbcTemplate.queryForObject(INSERT_SQL, Long.class, "REQ-NEW");
+
+        assertEquals("REQ-LEGACY", jdbcTemplate.queryForObject(
+                "SELECT request_id FROM onboarding_failures WHERE id = ?", String.class, legacyId));
+        assertTrue(newId > legacyId);
+    }
+
+    private static Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/failure-handler", "classpath:db/migration/outbox")
+                .table("flyway_schema_history_failure_handler")
+                .target(target)
+                .load();
+    }
+}
@@ -1,14 +1,13 @@
 package com.onboarding.identity;
 
-import com.onboarding.events.ErrorTriggerProperties;
+import com.onboarding.events.fault.FaultInjectionConfiguration;
+import com.onboarding.events.trigger.ErrorTriggerConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
-@EnableRetry
-@EnableConfigurationProperties(ErrorTriggerProperties.class)
+@Import({ErrorTriggerConfiguration.class, FaultInjectionConfiguration.class})
 public class IdentityServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(IdentityServiceApplication.class, args);
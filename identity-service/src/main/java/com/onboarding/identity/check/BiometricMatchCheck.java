@@ -0,0 +1,34 @@
+package com.onboarding.identity.check;
+
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.identity.config.IdentityCheckProperties;
+import com.onboarding.identity.service.ErrorTriggerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class BiometricMatchCheck extends SimulatedIdentityCheck {
+    private static final Logger logger = LoggerFactory.getLogger(BiometricMatchCheck.class);
+
+    private final ErrorTriggerService errorTriggerService;
+
+    public BiometricMatchCheck(IdentityCheckProperties properties, ErrorTriggerService errorTriggerService) {
+        super("biometric", properties);
+        this.errorTriggerService = errorTriggerService;
+    }
+
+    @Override
+    public Map<String, Object> run(String customerId, Map<String, Object> kycData) {
+        // Check for error triggers
+        if (customerId != null && errorTriggerService.shouldFail(customerId)) {
+            logger.error("Identity verification failed for customer: {}", customerId);
+            throw new PermanentStageException("BIOMETRIC_MISMATCH", "Identity verification failed: Biometric mismatch");
+        }
+
+        simulateLatency();
+        return Map.of("biometricMatch", true);
+    }
+}
@@ -0,0 +1,20 @@
+package com.onboarding.identity.check;
+
+import com.onboarding.identity.config.IdentityCheckProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class DocumentAuthenticityCheck extends SimulatedIdentityCheck {
+
+    public DocumentAuthenticityCheck(IdentityCheckProperties properties) {
+        super("document", properties);
+    }
+
+    @Override
+    public Map<String, Object> run(String customerId, Map<String, Object> kycData) {
+        simulateLatency();
+        return Map.of("documentAuthenticity", "VERIFIED");
+    }
+}
@@ -0,0 +1,70 @@
+package com.onboarding.identity.check;
+
+import com.onboarding.events.error.TransientStageException;
+import com.onboarding.identity.config.IdentityCheckProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class IdentityCheckRunner {
+    private static final Logger logger = LoggerFactory.getLogger(IdentityCheckRunner.class);
+
+    private final List<IdentitySubCheck> checks;
+    private final IdentityCheckProperties properties;
+
+    public IdentityCheckRunner(List<IdentitySubCheck> checks, IdentityCheckProperties properties) {
+        this.checks = List.copyOf(checks);
+        this.properties = properties;
+    }
+
+    public Map<String, Object> runAll(String customerId, Map<String, Object> kycData) {
+        long deadline = System.nanoTime() + properties.getDeadline().toNanos();
+        Map<String, Object> results = new HashMap<>();
+
+        // Every check runs on its own virtual thread, and none outlives this method: close() waits for all of them
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Map<String, Object>> completion = new ExecutorCompletionService<>(scope);
+            List<Future<Map<String, Object>>> pending = new ArrayList<>(checks.size());
+            for (IdentitySubCheck check : checks) {
+                pending.add(completion.submit(() -> check.run(customerId, kycData)));
+            }
+
+            try {
+                for (int i = 0; i < checks.size(); i++) {
+                    Future<Map<String, Object>> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        logger.warn("Identity checks for customer: {} exceeded the {} deadline", customerId, properties.getDeadline());
+                        throw new TransientStageException("IDENTITY_CHECK_TIMEOUT",
+                                "Identity checks did not finish within " + properties.getDeadline());
+                    }
+                    results.putAll(done.get());
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new TransientStageException("IDENTITY_CHECK_FAILED", "Identity check failed: " + e.getCause(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransientStageException("IDENTITY_CHECK_INTERRUPTED", "Identity checks interrupted", e);
+            } finally {
+                // Fail fast: the first failure (or the deadline) cancels the checks still in flight
+                pending.forEach(future -> future.cancel(true));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,11 @@
+package com.onboarding.identity.check;
+
+import java.util.Map;
+
+// One independent identity provider call; its result entries are merged into the identity data
+public interface IdentitySubCheck {
+
+    String name();
+
+    Map<String, Object> run(String customerId, Map<String, Object> kycData);
+}
@@ -0,0 +1,20 @@
+package com.onboarding.identity.check;
+
+import com.onboarding.identity.config.IdentityCheckProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class LivenessCheck extends SimulatedIdentityCheck {
+
+    public LivenessCheck(IdentityCheckProperties properties) {
+        super("liveness", properties);
+    }
+
+    @Override
+    public Map<String, Object> run(String customerId, Map<String, Object> kycData) {
+        simulateLatency();
+        return Map.of("livenessCheck", "PASSED");
+    }
+}
@@ -0,0 +1,31 @@
+package com.onboarding.identity.check;
+
+import com.onboarding.identity.config.IdentityCheckProperties;
+
+import java.util.concurrent.CancellationException;
+
+abstract class SimulatedIdentityCheck implements IdentitySubCheck {
+
+    private final String name;
+    private final IdentityCheckProperties properties;
+
+    SimulatedIdentityCheck(String name, IdentityCheckProperties properties) {
+        this.name = name;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    void simulateLatency() {
+        try {
+            Thread.sleep(properties.latencyOf(name));
+        } catch (InterruptedException e) {
+            // Interrupted when a sibling check failed or the deadline passed
+            Thread.currentThread().interrupt();
+            throw new CancellationException(name + " check cancelled");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.onboarding.identity.client;
+
+import java.util.Map;
+
+// Result of one item in a provider batch; items succeed or fail independently of each other
+public record IdentityCheckOutcome(Map<String, Object> result, RuntimeException failure) {
+
+    public static IdentityCheckOutcome success(Map<String, Object> result) {
+        return new IdentityCheckOutcome(result, null);
+    }
+
+    public static IdentityCheckOutcome failure(RuntimeException failure) {
+        return new IdentityCheckOutcome(null, failure);
+    }
+}
@@ -0,0 +1,6 @@
+package com.onboarding.identity.client;
+
+import java.util.Map;
+
+public record IdentityCheckRequest(String requestId, String customerId, Map<String, Object> kycData) {
+}
@@ -0,0 +1,9 @@
+package com.onboarding.identity.client;
+
+import java.util.List;
+
+public interface IdentityProviderClient {
+
+    // One provider call for the whole batch; returns one outcome per request, in request order
+    List<IdentityCheckOutcome> verifyBatch(List<IdentityCheckRequest> requests);
+}
@@ -0,0 +1,53 @@
+package com.onboarding.identity.client;
+
+import com.onboarding.events.error.TransientStageException;
+import com.onboarding.identity.check.IdentityCheckRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Component
+public class StubIdentityProviderClient implements IdentityProviderClient {
+
+    private final IdentityCheckRunner checkRunner;
+
+    public StubIdentityProviderClient(IdentityCheckRunner checkRunner) {
+        this.checkRunner = checkRunner;
+    }
+
+    @Override
+    public List<IdentityCheckOutcome> verifyBatch(List<IdentityCheckRequest> requests) {
+        // Simulates a batch endpoint: items are checked side by side and the call returns once all are done
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Map<String, Object>>> checks = new ArrayList<>(requests.size());
+            for (IdentityCheckRequest request : requests) {
+                checks.add(executor.submit(() -> checkRunner.runAll(request.customerId(), request.kycData())));
+            }
+
+            List<IdentityCheckOutcome> outcomes = new ArrayList<>(checks.size());
+            for (Future<Map<String, Object>> check : checks) {
+                outcomes.add(outcome(check));
+            }
+            return outcomes;
+        }
+    }
+
+    private static IdentityCheckOutcome outcome(Future<Map<String, Object>> check) {
+        try {
+            return IdentityCheckOutcome.success(check.get());
+        } catch (ExecutionException e) {
+            return IdentityCheckOutcome.failure(e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new TransientStageException("IDENTITY_CHECK_FAILED", "Identity check failed: " + e.getCause(), e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return IdentityCheckOutcome.failure(new TransientStageException("IDENTITY_CHECK_INTERRUPTED", "Identity checks interrupted", e));
+        }
+    }
+}
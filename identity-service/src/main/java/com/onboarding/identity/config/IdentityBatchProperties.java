@@ -0,0 +1,32 @@
+package com.onboarding.identity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.identity.batch")
+public class IdentityBatchProperties {
+    // Deliveries submitted to the provider in one call
+    private int maxSize = 50;
+    // A partial batch is submitted once no further delivery arrives within this time. It is a gap between
+    // deliveries, not a cap on the batch: a steady trickle can hold one open for up to max-size gaps.
+    private Duration idleTimeout = Duration.ofMillis(200);
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
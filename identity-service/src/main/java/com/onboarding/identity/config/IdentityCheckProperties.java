@@ -0,0 +1,41 @@
+package com.onboarding.identity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.identity.checks")
+public class IdentityCheckProperties {
+    // Budget for all sub-checks of one request together; checks still running after it are cancelled
+    private Duration deadline = Duration.ofSeconds(3);
+    // Simulated provider latency per sub-check, keyed by check name
+    private Map<String, Duration> latency = new HashMap<>(Map.of(
+            "biometric", Duration.ofMillis(800),
+            "document", Duration.ofMillis(800),
+            "liveness", Duration.ofMillis(800)
+    ));
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    public Map<String, Duration> getLatency() {
+        return latency;
+    }
+
+    public void setLatency(Map<String, Duration> latency) {
+        this.latency = latency;
+    }
+
+    public Duration latencyOf(String check) {
+        return latency.getOrDefault(check, Duration.ZERO);
+    }
+}
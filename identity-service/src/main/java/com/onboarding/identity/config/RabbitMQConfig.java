@@ -3,16 +3,24 @@ package com.onboarding.identity.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.listener.ListenerContainerConfigurer;
+import com.onboarding.events.listener.ListenerProperties;
+import com.onboarding.events.retry.RetryProperties;
+import com.onboarding.events.retry.RetryTopology;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
+@EnableConfigurationProperties({ListenerProperties.class, RetryProperties.class})
 public class RabbitMQConfig {
     public static final String EXCHANGE_NAME = "onboarding.exchange";
     public static final String QUEUE_NAME = "identity.queue";
@@ -56,6 +64,21 @@ public class RabbitMQConfig {
                 .with(EventRoutingKeys.KYC_COMPLETED);
     }
 
+    @Bean
+    public RetryTopology retryTopology(RetryProperties retryProperties) {
+        return new RetryTopology(retryProperties, QUEUE_NAME);
+    }
+
+    @Bean
+    public Declarables retryQueues(RetryTopology retryTopology) {
+        return retryTopology.declarables();
+    }
+
+    @Bean
+    public TieredRetryMessageRecoverer retryRecoverer(RabbitTemplate rabbitTemplate, RetryTopology retryTopology) {
+        return new TieredRetryMessageRecoverer(rabbitTemplate, retryTopology);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -67,16 +90,28 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter());
+        // A retry park that cannot be routed is returned, so the recoverer requeues the delivery instead of acking it
+        template.setMandatory(true);
         return template;
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               ListenerProperties listenerProperties,
+                                                                               IdentityBatchProperties batchProperties,
+                                                                               Environment environment) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
         // Don't requeue rejected messages - let them go to DLQ
         factory.setDefaultRequeueRejected(false);
+        // Deliveries are handed to the listener as one list of up to max-size, or fewer once idle-timeout passes
+        // without another delivery. The listener settles (and parks for retry) each message itself.
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(Math.max(1, batchProperties.getMaxSize()));
+        factory.setReceiveTimeout(batchProperties.getIdleTimeout().toMillis());
+        ListenerContainerConfigurer.configure(factory, listenerProperties, environment);
         return factory;
     }
 }
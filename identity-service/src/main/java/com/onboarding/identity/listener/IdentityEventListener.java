@@ -1,17 +1,32 @@
 package com.onboarding.identity.listener;
 
 import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.IdentityVerificationFailedEvent;
 import com.onboarding.events.IdentityVerifiedEvent;
 import com.onboarding.events.KYCCompletedEvent;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.StageFailureMetrics;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
+import com.onboarding.identity.client.IdentityCheckRequest;
 import com.onboarding.identity.config.RabbitMQConfig;
 import com.onboarding.identity.service.IdentityVerificationService;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 public class IdentityEventListener {
@@ -19,22 +34,70 @@ public class IdentityEventListener {
 
     private final IdentityVerificationService identityVerificationService;
     private final RabbitTemplate rabbitTemplate;
+    private final TieredRetryMessageRecoverer retryRecoverer;
+    private final StageFailureMetrics failureMetrics;
+    private final DistributionSummary batchSizes;
 
-    public IdentityEventListener(IdentityVerificationService identityVerificationService, RabbitTemplate rabbitTemplate) {
+    public IdentityEventListener(IdentityVerificationService identityVerificationService, RabbitTemplate rabbitTemplate,
+                                 TieredRetryMessageRecoverer retryRecoverer, MeterRegistry meterRegistry) {
         this.identityVerificationService = identityVerificationService;
         this.rabbitTemplate = rabbitTemplate;
+        this.retryRecoverer = retryRecoverer;
+        this.failureMetrics = new StageFailureMetrics(meterRegistry, "identity");
+        this.batchSizes = DistributionSummary.builder("onboarding.identity.batch.size")
+                .description("KYCCompletedEvents verified per provider batch")
+                .register(meterRegistry);
     }
 
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-    public void handleKycCompleted(KYCCompletedEvent event) {
-        logger.info("Received KYCCompletedEvent for requestId: {}", event.getRequestId());
+    // The container hands over up to onboarding.identity.batch.max-size deliveries at once. They are
+    // verified as one provider batch, but every delivery is acked, retried or dead-lettered on its own.
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, ackMode = "MANUAL")
+    public void handleKycCompleted(List<Message> messages, Channel channel) {
+        List<Message> accepted = new ArrayList<>(messages.size());
+        List<KYCCompletedEvent> events = new ArrayList<>(messages.size());
+        List<IdentityCheckRequest> requests = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            KYCCompletedEvent event;
+            try {
+                event = (KYCCompletedEvent) rabbitTemplate.getMessageConverter().fromMessage(message);
+            } catch (RuntimeException e) {
+                logger.error("Rejecting unreadable message from {}", RabbitMQConfig.QUEUE_NAME, e);
+                nack(channel, message.getMessageProperties().getDeliveryTag(), false);
+                continue;
+            }
+            logger.info("Received KYCCompletedEvent for requestId: {}", event.getRequestId());
+            Map<String, Object> kycData = event.getKycData();
+            accepted.add(message);
+            events.add(event);
+            requests.add(new IdentityCheckRequest(event.getRequestId(),
+                    kycData != null ? (String) kycData.get("customerId") : null, kycData));
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+        batchSizes.record(requests.size());
 
+        List<CompletableFuture<Map<String, Object>>> results;
         try {
-            Map<String, Object> identityData = identityVerificationService.verifyIdentity(
-                    event.getRequestId(),
-                    event.getKycData()
-            );
+            results = identityVerificationService.verifyBatch(requests);
+        } catch (RuntimeException e) {
+            results = requests.stream().map(request -> CompletableFuture.<Map<String, Object>>failedFuture(e)).toList();
+        }
 
+        for (int i = 0; i < accepted.size(); i++) {
+            Message message = accepted.get(i);
+            KYCCompletedEvent event = events.get(i);
+            try {
+                complete(event, results.get(i).join(), message, channel);
+            } catch (CompletionException e) {
+                fail(event, e.getCause() != null ? e.getCause() : e, message, channel);
+            }
+        }
+    }
+
+    private void complete(KYCCompletedEvent event, Map<String, Object> identityData, Message message, Channel channel) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        try {
             IdentityVerifiedEvent verifiedEvent = new IdentityVerifiedEvent(
                     event.getRequestId(),
                     "VERIFIED",
@@ -48,9 +111,54 @@ public class IdentityEventListener {
             );
 
             logger.info("Published IdentityVerifiedEvent for requestId: {}", event.getRequestId());
+            ack(channel, deliveryTag);
+        } catch (Exception e) {
+            fail(event, e, message, channel);
+        }
+    }
+
+    private void fail(KYCCompletedEvent event, Throwable failure, Message message, Channel channel) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        failureMetrics.record(failure);
+        try {
+            if (failure instanceof PermanentStageException e) {
+                // Retrying a deterministic rejection cannot succeed, so report it now instead of via the DLQ
+                logger.warn("Identity verification rejected for requestId: {} ({}): {}", event.getRequestId(), e.getErrorCode(), e.getMessage());
+                rabbitTemplate.convertAndSend(
+                        RabbitMQConfig.EXCHANGE_NAME,
+                        EventRoutingKeys.IDENTITY_FAILED,
+                        new IdentityVerificationFailedEvent(event.getRequestId(), e.getErrorCode(), e.getMessage(),
+                                TieredRetryMessageRecoverer.retryCount(message))
+                );
+            } else {
+                logger.error("Error verifying identity for requestId: {}", event.getRequestId(), failure);
+                // Parks only this message on the next retry tier, or throws once its retries are exhausted
+                retryRecoverer.recover(message, failure);
+            }
+            ack(channel, deliveryTag);
+        } catch (AmqpRejectAndDontRequeueException e) {
+            // Dead-lettered to identity.dlq, where the Failure Handler picks it up
+            nack(channel, deliveryTag, false);
         } catch (Exception e) {
-            logger.error("Error verifying identity for requestId: {}", event.getRequestId(), e);
-            throw new RuntimeException("Identity verification failed", e);
+            logger.error("Could not settle identity message for requestId: {}, requeueing", event.getRequestId(), e);
+            nack(channel, deliveryTag, true);
+        }
+    }
+
+    private static void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException e) {
+            // The channel is gone; the broker redelivers the unacked message
+            logger.warn("Failed to ack delivery {}", deliveryTag, e);
+        }
+    }
+
+    private static void nack(Channel channel, long deliveryTag, boolean requeue) {
+        try {
+            channel.basicNack(deliveryTag, false, requeue);
+        } catch (IOException e) {
+            logger.warn("Failed to nack delivery {}", deliveryTag, e);
         }
     }
 }
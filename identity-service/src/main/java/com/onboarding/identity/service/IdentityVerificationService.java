@@ -1,58 +1,107 @@
 package com.onboarding.identity.service;
 
+import com.onboarding.events.concurrent.SingleFlight;
+import com.onboarding.events.error.TransientStageException;
+import com.onboarding.events.fault.FaultInjector;
+import com.onboarding.identity.client.IdentityCheckOutcome;
+import com.onboarding.identity.client.IdentityCheckRequest;
+import com.onboarding.identity.client.IdentityProviderClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Service
 public class IdentityVerificationService {
     private static final Logger logger = LoggerFactory.getLogger(IdentityVerificationService.class);
 
-    private final ErrorTriggerService errorTriggerService;
+    private final IdentityProviderClient providerClient;
+    private final FaultInjector faultInjector;
+    private final SingleFlight<VerificationKey, Map<String, Object>> verifications;
 
-    public IdentityVerificationService(ErrorTriggerService errorTriggerService) {
-        this.errorTriggerService = errorTriggerService;
+    public IdentityVerificationService(IdentityProviderClient providerClient, FaultInjector faultInjector,
+                                       MeterRegistry meterRegistry) {
+        this.providerClient = providerClient;
+        this.faultInjector = faultInjector;
+        this.verifications = new SingleFlight<>("identity-verification", meterRegistry);
     }
 
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public Map<String, Object> verifyIdentity(String requestId, Map<String, Object> kycData) {
-        logger.info("Verifying identity for requestId: {}", requestId);
-
-        // Check for error triggers
-        String customerId = (String) kycData.get("customerId");
-        if (customerId != null && errorTriggerService.shouldFail(customerId)) {
-            logger.error("Identity verification failed for customer: {}", customerId);
-            throw new RuntimeException("Identity verification failed: Biometric mismatch");
+    // Returns one future per request, in request order; each completes or fails on its own
+    public List<CompletableFuture<Map<String, Object>>> verifyBatch(List<IdentityCheckRequest> requests) {
+        List<IdentityCheckRequest> submitted = new ArrayList<>();
+        List<CompletableFuture<Map<String, Object>>> pending = new ArrayList<>();
+        List<CompletableFuture<Map<String, Object>>> results = new ArrayList<>(requests.size());
+
+        for (IdentityCheckRequest request : requests) {
+            logger.info("Verifying identity for requestId: {}", request.requestId());
+            Supplier<CompletableFuture<Map<String, Object>>> submit = () -> {
+                CompletableFuture<Map<String, Object>> checks = new CompletableFuture<>();
+                submitted.add(request);
+                pending.add(checks);
+                return checks;
+            };
+
+            // Duplicates of a check already in flight (in this batch or another) join it instead of being sent again
+            CompletableFuture<Map<String, Object>> checks = request.customerId() != null
+                    ? verifications.execute(VerificationKey.of(request), submit)
+                    : submit.get();
+            results.add(checks.thenApply(result -> toIdentityData(request, result)));
+        }
+
+        if (!submitted.isEmpty()) {
+            submit(submitted, pending);
         }
+        return results;
+    }
 
-        // Simulate identity verification (document validation)
+    private void submit(List<IdentityCheckRequest> submitted, List<CompletableFuture<Map<String, Object>>> pending) {
+        logger.info("Submitting batch of {} identity checks to the provider", submitted.size());
+        List<IdentityCheckOutcome> outcomes;
         try {
-            Thread.sleep(800);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            outcomes = faultInjector.call("identity", () -> providerClient.verifyBatch(submitted));
+        } catch (RuntimeException e) {
+            logger.error("Identity provider batch of {} checks failed", submitted.size(), e);
+            pending.forEach(checks -> checks.completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < pending.size(); i++) {
+            IdentityCheckOutcome outcome = i < outcomes.size() ? outcomes.get(i) : null;
+            if (outcome == null) {
+                pending.get(i).completeExceptionally(new TransientStageException("IDENTITY_RESULT_MISSING",
+                        "Identity provider returned no result for requestId: " + submitted.get(i).requestId()));
+            } else if (outcome.failure() != null) {
+                pending.get(i).completeExceptionally(outcome.failure());
+            } else {
+                pending.get(i).complete(outcome.result());
+            }
         }
+    }
 
-        Map<String, Object> identityData = new HashMap<>();
+    private static Map<String, Object> toIdentityData(IdentityCheckRequest request, Map<String, Object> checks) {
+        Map<String, Object> identityData = new HashMap<>(checks);
         identityData.put("verificationLevel", "LEVEL_2");
-        identityData.put("biometricMatch", true);
-        identityData.put("documentAuthenticity", "VERIFIED");
-        identityData.put("livenessCheck", "PASSED");
-        
+
         // Pass through customer data from KYC
-        if (kycData != null) {
-            identityData.putAll(kycData);
+        if (request.kycData() != null) {
+            identityData.putAll(request.kycData());
         }
 
-        logger.info("Identity verification completed for requestId: {}", requestId);
+        logger.info("Identity verification completed for requestId: {}", request.requestId());
         return identityData;
     }
+
+    private record VerificationKey(String customerId, Object documentType, Object documentNumber) {
+        static VerificationKey of(IdentityCheckRequest request) {
+            Map<String, Object> kycData = request.kycData() != null ? request.kycData() : Map.of();
+            return new VerificationKey(request.customerId(), kycData.get("documentType"), kycData.get("documentNumber"));
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package com.onboarding.identity.check;
+
+import com.onboarding.events.ErrorTriggerProperties;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.TransientStageException;
+import com.onboarding.events.trigger.ErrorTriggerMatchers;
+import com.onboarding.identity.config.IdentityCheckProperties;
+import com.onboarding.identity.service.ErrorTriggerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityCheckRunnerTest {
+
+    private IdentityCheckProperties properties;
+    private ErrorTriggerProperties errorTriggerProperties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdentityCheckProperties();
+        properties.getLatency().replaceAll((check, latency) -> Duration.ofMillis(300));
+        errorTriggerProperties = new ErrorTriggerProperties();
+    }
+
+    @Test
+    void testChecksRunConcurrently() {
+        long start = System.nanoTime();
+        Map<String, Object> result = runner().runAll("CUST-123", Map.of());
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(true, result.get("biometricMatch"));
+        assertEquals("VERIFIED", result.get("documentAuthenticity"));
+        assertEquals("PASSED", result.get("livenessCheck"));
+        assertTrue(elapsedMillis < 800, "expected the max of the checks, took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void testFailingCheckCancelsTheOthers() {
+        errorTriggerProperties.getIdentity().getFailureCustomerIds().add("FAIL-ID-001");
+        properties.getLatency().put("document", Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        PermanentStageException e = assertThrows(PermanentStageException.class, () -> runner().runAll("FAIL-ID-001", Map.of()));
+
+        assertEquals("BIOMETRIC_MISMATCH", e.getErrorCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    @Test
+    void testDeadlineCancelsSlowChecks() {
+        properties.setDeadline(Duration.ofMillis(100));
+
+        TransientStageException e = assertThrows(TransientStageException.class, () -> runner().runAll("CUST-123", Map.of()));
+
+        assertEquals("IDENTITY_CHECK_TIMEOUT", e.getErrorCode());
+    }
+
+    private IdentityCheckRunner runner() {
+        return new IdentityCheckRunner(List.of(
+                new BiometricMatchCheck(properties, new ErrorTriggerService(new ErrorTriggerMatchers(errorTriggerProperties))),
+                new DocumentAuthenticityCheck(properties),
+                new LivenessCheck(properties)
+        ), properties);
+    }
+}
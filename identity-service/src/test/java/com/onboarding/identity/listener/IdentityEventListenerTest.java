@@ -0,0 +1,139 @@
+package com.onboarding.identity.listener;
+
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.IdentityVerificationFailedEvent;
+import com.onboarding.events.IdentityVerifiedEvent;
+import com.onboarding.events.KYCCompletedEvent;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.TransientStageException;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
+import com.onboarding.identity.client.IdentityCheckRequest;
+import com.onboarding.identity.config.RabbitMQConfig;
+import com.onboarding.identity.service.IdentityVerificationService;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// One provider call per batch, then every delivery is settled on its own by its delivery tag
+class IdentityEventListenerTest {
+
+    private final MessageConverter messageConverter = new RabbitMQConfig().jsonMessageConverter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IdentityVerificationService identityVerificationService;
+    private RabbitTemplate rabbitTemplate;
+    private TieredRetryMessageRecoverer retryRecoverer;
+    private Channel channel;
+    private IdentityEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        identityVerificationService = mock(IdentityVerificationService.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.getMessageConverter()).thenReturn(messageConverter);
+        retryRecoverer = mock(TieredRetryMessageRecoverer.class);
+        channel = mock(Channel.class);
+        listener = new IdentityEventListener(identityVerificationService, rabbitTemplate, retryRecoverer, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMixedBatchSettlesEachDeliveryOnItsOwnAfterTheProviderCall() throws Exception {
+        Message verified = message(1, "REQ-1");
+        Message transientFailure = message(2, "REQ-2");
+        Message rejected = message(3, "REQ-3");
+        Message exhausted = message(4, "REQ-4");
+        Message unreadable = unreadable(5);
+        TransientStageException timeout = new TransientStageException("IDENTITY_PROVIDER_TIMEOUT", "timed out");
+        when(identityVerificationService.verifyBatch(anyList())).thenReturn(List.of(
+                CompletableFuture.completedFuture(Map.of("verified", true)),
+                CompletableFuture.failedFuture(timeout),
+                CompletableFuture.failedFuture(new PermanentStageException("IDENTITY_MISMATCH", "mismatch")),
+                CompletableFuture.failedFuture(new TransientStageException("IDENTITY_PROVIDER_TIMEOUT", "timed out"))));
+        doThrow(new AmqpRejectAndDontRequeueException("retries exhausted"))
+                .when(retryRecoverer).recover(eq(exhausted), any());
+
+        listener.handleKycCompleted(List.of(verified, transientFailure, rejected, unreadable, exhausted), channel);
+
+        ArgumentCaptor<List<IdentityCheckRequest>> requests = ArgumentCaptor.forClass(List.class);
+        verify(identityVerificationService).verifyBatch(requests.capture());
+        assertEquals(List.of("REQ-1", "REQ-2", "REQ-3", "REQ-4"),
+                requests.getValue().stream().map(IdentityCheckRequest::requestId).toList());
+        assertEquals(4, meterRegistry.get("onboarding.identity.batch.size").summary().max());
+
+        verify(channel).basicNack(5, false, false);
+        InOrder afterProvider = inOrder(identityVerificationService, channel);
+        afterProvider.verify(identityVerificationService).verifyBatch(anyList());
+        afterProvider.verify(channel).basicAck(1, false);
+        afterProvider.verify(channel).basicAck(2, false);
+        afterProvider.verify(channel).basicAck(3, false);
+        afterProvider.verify(channel).basicNack(4, false, false);
+        verifyNoMoreInteractions(channel);
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME), eq(EventRoutingKeys.IDENTITY_VERIFIED),
+                any(IdentityVerifiedEvent.class));
+        verify(retryRecoverer).recover(transientFailure, timeout);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME), eq(EventRoutingKeys.IDENTITY_FAILED),
+                any(IdentityVerificationFailedEvent.class));
+    }
+
+    @Test
+    void testFailedProviderCallRetriesEveryDeliveryInTheBatch() throws Exception {
+        Message first = message(1, "REQ-1");
+        Message second = message(2, "REQ-2");
+        RuntimeException outage = new TransientStageException("IDENTITY_PROVIDER_UNAVAILABLE", "down");
+        when(identityVerificationService.verifyBatch(anyList())).thenThrow(outage);
+
+        listener.handleKycCompleted(List.of(first, second), channel);
+
+        verify(retryRecoverer).recover(first, outage);
+        verify(retryRecoverer).recover(second, outage);
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verifyNoMoreInteractions(channel);
+        verify(rabbitTemplate, never()).convertAndSend(any(String.class), any(String.class), any(Object.class));
+    }
+
+    @Test
+    void testBatchOfOnlyUnreadableMessagesNeverCallsTheProvider() throws Exception {
+        listener.handleKycCompleted(List.of(unreadable(1), unreadable(2)), channel);
+
+        verifyNoInteractions(identityVerificationService);
+        verify(channel).basicNack(1, false, false);
+        verify(channel).basicNack(2, false, false);
+        verifyNoMoreInteractions(channel);
+    }
+
+    private Message message(long deliveryTag, String requestId) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return messageConverter.toMessage(
+                new KYCCompletedEvent(requestId, "COMPLETED", Map.of("customerId", "CUST-" + deliveryTag)), properties);
+    }
+
+    private static Message unreadable(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("__TypeId__", KYCCompletedEvent.class.getName());
+        return new Message("{not json".getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
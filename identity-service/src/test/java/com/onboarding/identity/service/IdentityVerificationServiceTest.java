@@ -0,0 +1,55 @@
+package com.onboarding.identity.service;
+
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.fault.FaultInjectionProperties;
+import com.onboarding.events.fault.FaultInjector;
+import com.onboarding.identity.client.IdentityCheckOutcome;
+import com.onboarding.identity.client.IdentityCheckRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityVerificationServiceTest {
+
+    @Test
+    void testBatchFansOutResultsAndIsolatesFailures() {
+        List<List<IdentityCheckRequest>> batches = new ArrayList<>();
+        IdentityVerificationService service = new IdentityVerificationService(requests -> {
+            batches.add(requests);
+            return requests.stream()
+                    .map(request -> request.customerId().startsWith("FAIL")
+                            ? IdentityCheckOutcome.failure(new PermanentStageException("BIOMETRIC_MISMATCH", "mismatch"))
+                            : IdentityCheckOutcome.success(Map.<String, Object>of("biometricMatch", true)))
+                    .toList();
+        }, new FaultInjector(new FaultInjectionProperties(), new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
+        List<CompletableFuture<Map<String, Object>>> results = service.verifyBatch(List.of(
+                request("REQ-1", "CUST-1", "DOC1"),
+                request("REQ-2", "FAIL-ID-001", "DOC2"),
+                request("REQ-3", "CUST-1", "DOC1"),
+                request("REQ-4", "CUST-2", "DOC3")
+        ));
+
+        // The duplicate of REQ-1 is coalesced rather than sent twice
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(true, results.get(0).join().get("biometricMatch"));
+        assertEquals("LEVEL_2", results.get(0).join().get("verificationLevel"));
+        assertEquals("REQ-3", results.get(2).join().get("requestId"));
+        assertEquals("CUST-2", results.get(3).join().get("customerId"));
+        CompletionException e = assertThrows(CompletionException.class, () -> results.get(1).join());
+        assertInstanceOf(PermanentStageException.class, e.getCause());
+    }
+
+    private static IdentityCheckRequest request(String requestId, String customerId, String documentNumber) {
+        return new IdentityCheckRequest(requestId, customerId,
+                Map.of("requestId", requestId, "customerId", customerId, "documentNumber", documentNumber));
+    }
+}
@@ -0,0 +1,37 @@
+package com.onboarding.kyc.actuator;
+
+import com.onboarding.kyc.service.KycResultCache;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// GET /actuator/kyccache, DELETE /actuator/kyccache (all) or /actuator/kyccache/{customerId}
+@Component
+@Endpoint(id = "kyccache")
+public class KycCacheEndpoint {
+
+    private final KycResultCache kycResultCache;
+
+    public KycCacheEndpoint(KycResultCache kycResultCache) {
+        this.kycResultCache = kycResultCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> size() {
+        return Map.of("size", kycResultCache.size());
+    }
+
+    @DeleteOperation
+    public void invalidateAll() {
+        kycResultCache.invalidateAll();
+    }
+
+    @DeleteOperation
+    public void invalidate(@Selector String customerId) {
+        kycResultCache.invalidate(customerId);
+    }
+}
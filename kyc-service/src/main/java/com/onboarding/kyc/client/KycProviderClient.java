@@ -0,0 +1,10 @@
+package com.onboarding.kyc.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface KycProviderClient {
+
+    // Completes with the provider's verification result without blocking the caller
+    CompletableFuture<Map<String, Object>> verify(String customerId, Map<String, Object> customerData);
+}
@@ -0,0 +1,56 @@
+package com.onboarding.kyc.client;
+
+import com.onboarding.events.error.TransientStageException;
+import com.onboarding.events.fault.LatencyModel;
+import com.onboarding.kyc.config.KycProviderProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class StubKycProviderClient implements KycProviderClient {
+    private static final Logger logger = LoggerFactory.getLogger(StubKycProviderClient.class);
+
+    private final KycProviderProperties properties;
+    private final LatencyModel latency;
+    // Completions run on their own threads so a slow callback never delays other verifications
+    private final ExecutorService callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StubKycProviderClient(KycProviderProperties properties) {
+        this.properties = properties;
+        this.latency = LatencyModel.of(properties.getLatency());
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> verify(String customerId, Map<String, Object> customerData) {
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latency.sampleNanos());
+        logger.debug("Stub KYC provider answering for customer {} in {} ms", customerId, latencyMillis);
+
+        return CompletableFuture.supplyAsync(() -> {
+            if (properties.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < properties.getErrorRate()) {
+                throw new TransientStageException("KYC_PROVIDER_UNAVAILABLE", "KYC provider unavailable");
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("customerId", customerId);
+            result.put("kycLevel", "BASIC");
+            result.put("status", "APPROVED");
+            result.put("documentVerified", true);
+            return result;
+        }, CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS, callbackExecutor));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package com.onboarding.kyc.config;
+
+import com.onboarding.events.fault.FaultInjectionProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.kyc.provider")
+public class KycProviderProperties {
+    // Verifications awaiting the provider at once; the listener stops pulling messages beyond this
+    private int maxInFlight = 200;
+    private Duration timeout = Duration.ofSeconds(5);
+    // The stub provider's latency, sampled the same way as injected fault latency
+    private FaultInjectionProperties.Latency latency = defaultLatency();
+    // Share of stub calls that fail as a transient provider outage
+    private double errorRate = 0.0;
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public FaultInjectionProperties.Latency getLatency() {
+        return latency;
+    }
+
+    public void setLatency(FaultInjectionProperties.Latency latency) {
+        this.latency = latency;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    // FIXED by default, answering every call in one second
+    private static FaultInjectionProperties.Latency defaultLatency() {
+        FaultInjectionProperties.Latency latency = new FaultInjectionProperties.Latency();
+        latency.setMean(Duration.ofMillis(1000));
+        latency.setMin(Duration.ofMillis(200));
+        latency.setMax(Duration.ofSeconds(3));
+        return latency;
+    }
+}
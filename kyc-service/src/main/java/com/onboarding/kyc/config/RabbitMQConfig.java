@@ -3,16 +3,25 @@ package com.onboarding.kyc.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.listener.ListenerContainerConfigurer;
+import com.onboarding.events.listener.ListenerProperties;
+import com.onboarding.events.retry.RetryProperties;
+import com.onboarding.events.retry.RetryTopology;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
+@EnableConfigurationProperties({ListenerProperties.class, RetryProperties.class})
 public class RabbitMQConfig {
     public static final String EXCHANGE_NAME = "onboarding.exchange";
     public static final String QUEUE_NAME = "kyc.queue";
@@ -56,6 +65,21 @@ public class RabbitMQConfig {
                 .with(EventRoutingKeys.ONBOARDING_REQUESTED);
     }
 
+    @Bean
+    public RetryTopology retryTopology(RetryProperties retryProperties) {
+        return new RetryTopology(retryProperties, QUEUE_NAME);
+    }
+
+    @Bean
+    public Declarables retryQueues(RetryTopology retryTopology) {
+        return retryTopology.declarables();
+    }
+
+    @Bean
+    public TieredRetryMessageRecoverer retryRecoverer(RabbitTemplate rabbitTemplate, RetryTopology retryTopology) {
+        return new TieredRetryMessageRecoverer(rabbitTemplate, retryTopology);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -67,16 +91,27 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter());
+        // A retry park that cannot be routed is returned, so the recoverer requeues the delivery instead of acking it
+        template.setMandatory(true);
         return template;
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               ListenerProperties listenerProperties,
+                                                                               TieredRetryMessageRecoverer retryRecoverer,
+                                                                               Environment environment) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
         // Don't requeue rejected messages - let them go to DLQ
         factory.setDefaultRequeueRejected(false);
+        // Fail fast on the listener thread; retries wait on the broker in TTL-tiered retry queues
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(retryRecoverer)
+                .build());
+        ListenerContainerConfigurer.configure(factory, listenerProperties, environment);
         return factory;
     }
 }
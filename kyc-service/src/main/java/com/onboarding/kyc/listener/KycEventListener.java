@@ -4,15 +4,28 @@ import com.onboarding.events.EventRoutingKeys;
 import com.onboarding.events.KYCCompletedEvent;
 import com.onboarding.events.KYCFailedEvent;
 import com.onboarding.events.OnboardingRequestedEvent;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.StageFailureMetrics;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
+import com.onboarding.kyc.config.KycProviderProperties;
 import com.onboarding.kyc.config.RabbitMQConfig;
 import com.onboarding.kyc.service.KycProcessingService;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 
 @Component
 public class KycEventListener {
@@ -20,23 +33,62 @@ public class KycEventListener {
 
     private final KycProcessingService kycProcessingService;
     private final RabbitTemplate rabbitTemplate;
+    private final TieredRetryMessageRecoverer retryRecoverer;
+    private final StageFailureMetrics failureMetrics;
+    private final Semaphore inFlight;
 
-    public KycEventListener(KycProcessingService kycProcessingService, RabbitTemplate rabbitTemplate) {
+    public KycEventListener(KycProcessingService kycProcessingService, RabbitTemplate rabbitTemplate,
+                            TieredRetryMessageRecoverer retryRecoverer, KycProviderProperties providerProperties,
+                            MeterRegistry meterRegistry) {
         this.kycProcessingService = kycProcessingService;
         this.rabbitTemplate = rabbitTemplate;
+        this.retryRecoverer = retryRecoverer;
+        this.failureMetrics = new StageFailureMetrics(meterRegistry, "kyc");
+        this.inFlight = new Semaphore(providerProperties.getMaxInFlight());
+        Gauge.builder("onboarding.kyc.provider.in-flight", inFlight,
+                        semaphore -> providerProperties.getMaxInFlight() - semaphore.availablePermits())
+                .description("KYC verifications awaiting the provider")
+                .register(meterRegistry);
     }
 
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-    public void handleOnboardingRequested(OnboardingRequestedEvent event) {
+    // Manual ack: the consumer thread only starts the verification and moves on to the next
+    // delivery; each message is acked once its provider future completes. The payload is converted
+    // here rather than by the container so that every failure path settles the delivery itself.
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, ackMode = "MANUAL")
+    public void handleOnboardingRequested(Message message, Channel channel) throws InterruptedException {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        OnboardingRequestedEvent event;
+        try {
+            event = (OnboardingRequestedEvent) rabbitTemplate.getMessageConverter().fromMessage(message);
+        } catch (RuntimeException e) {
+            logger.error("Rejecting unreadable message from {}", RabbitMQConfig.QUEUE_NAME, e);
+            nack(channel, deliveryTag, false);
+            return;
+        }
         logger.info("Received OnboardingRequestedEvent for requestId: {}, customerId: {}",
                 event.getRequestId(), event.getCustomerId());
 
+        // Blocks the consumer once max-in-flight verifications are pending, bounding load on the provider
+        inFlight.acquire();
+        CompletableFuture<Map<String, Object>> verification;
         try {
-            Map<String, Object> kycData = kycProcessingService.processKyc(
-                    event.getCustomerId(),
-                    event.getCustomerData()
-            );
+            verification = kycProcessingService.processKyc(event.getCustomerId(), event.getCustomerData());
+        } catch (RuntimeException e) {
+            verification = CompletableFuture.failedFuture(e);
+        }
+        verification.whenComplete((kycData, ex) -> {
+            inFlight.release();
+            if (ex == null) {
+                complete(event, kycData, message, channel, deliveryTag);
+            } else {
+                fail(event, unwrap(ex), message, channel, deliveryTag);
+            }
+        });
+    }
 
+    private void complete(OnboardingRequestedEvent event, Map<String, Object> kycData,
+                          Message message, Channel channel, long deliveryTag) {
+        try {
             KYCCompletedEvent completedEvent = new KYCCompletedEvent(
                     event.getRequestId(),
                     "COMPLETED",
@@ -50,11 +102,58 @@ public class KycEventListener {
             );
 
             logger.info("Published KYCCompletedEvent for requestId: {}", event.getRequestId());
+            ack(channel, deliveryTag);
+        } catch (Exception e) {
+            fail(event, e, message, channel, deliveryTag);
+        }
+    }
+
+    private void fail(OnboardingRequestedEvent event, Throwable failure,
+                      Message message, Channel channel, long deliveryTag) {
+        failureMetrics.record(failure);
+        try {
+            if (failure instanceof PermanentStageException e) {
+                // Retrying a deterministic rejection cannot succeed, so report it now instead of via the DLQ
+                logger.warn("KYC rejected for requestId: {} ({}): {}", event.getRequestId(), e.getErrorCode(), e.getMessage());
+                rabbitTemplate.convertAndSend(
+                        RabbitMQConfig.EXCHANGE_NAME,
+                        EventRoutingKeys.KYC_FAILED,
+                        new KYCFailedEvent(event.getRequestId(), e.getErrorCode(), e.getMessage(),
+                                TieredRetryMessageRecoverer.retryCount(message))
+                );
+            } else {
+                logger.error("KYC processing failed for requestId: {}", event.getRequestId(), failure);
+                // Parks the message on the next retry tier, or throws once retries are exhausted
+                retryRecoverer.recover(message, failure);
+            }
+            ack(channel, deliveryTag);
+        } catch (AmqpRejectAndDontRequeueException e) {
+            // Dead-lettered to kyc.dlq, where the Failure Handler picks it up
+            nack(channel, deliveryTag, false);
         } catch (Exception e) {
-            logger.error("KYC processing failed after retries for requestId: {}", event.getRequestId(), e);
-            // Publish failure event (will be sent to DLQ if listener fails)
-            // Failure Handler will process from DLQ
-            throw new RuntimeException("KYC processing failed", e);
+            logger.error("Could not settle KYC message for requestId: {}, requeueing", event.getRequestId(), e);
+            nack(channel, deliveryTag, true);
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private static void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException e) {
+            // The channel is gone; the broker redelivers the unacked message
+            logger.warn("Failed to ack delivery {}", deliveryTag, e);
+        }
+    }
+
+    private static void nack(Channel channel, long deliveryTag, boolean requeue) {
+        try {
+            channel.basicNack(deliveryTag, false, requeue);
+        } catch (IOException e) {
+            logger.warn("Failed to nack delivery {}", deliveryTag, e);
         }
     }
 }
@@ -1,57 +1,84 @@
 package com.onboarding.kyc.service;
 
+import com.onboarding.events.concurrent.SingleFlight;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.fault.FaultInjector;
+import com.onboarding.kyc.client.KycProviderClient;
+import com.onboarding.kyc.config.KycProviderProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class KycProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(KycProcessingService.class);
 
     private final ErrorTriggerService errorTriggerService;
+    private final KycProviderClient kycProviderClient;
+    private final KycProviderProperties providerProperties;
+    private final KycResultCache kycResultCache;
+    private final FaultInjector faultInjector;
+    private final SingleFlight<KycResultCache.Key, Map<String, Object>> providerCalls;
 
-    public KycProcessingService(ErrorTriggerService errorTriggerService) {
+    public KycProcessingService(ErrorTriggerService errorTriggerService,
+                                KycProviderClient kycProviderClient,
+                                KycProviderProperties providerProperties,
+                                KycResultCache kycResultCache,
+                                FaultInjector faultInjector,
+                                MeterRegistry meterRegistry) {
         this.errorTriggerService = errorTriggerService;
+        this.kycProviderClient = kycProviderClient;
+        this.providerProperties = providerProperties;
+        this.kycResultCache = kycResultCache;
+        this.faultInjector = faultInjector;
+        this.providerCalls = new SingleFlight<>("kyc-provider", meterRegistry);
     }
 
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public Map<String, Object> processKyc(String customerId, Map<String, Object> customerData) {
+    public CompletableFuture<Map<String, Object>> processKyc(String customerId, Map<String, Object> customerData) {
         logger.info("Processing KYC for customer: {}", customerId);
 
         // Check for error triggers
         if (errorTriggerService.isBlacklisted(customerId)) {
             logger.error("KYC processing failed: Customer {} is blacklisted", customerId);
-            throw new RuntimeException("KYC processing failed: Customer is blacklisted");
+            return CompletableFuture.failedFuture(
+                    new PermanentStageException("KYC_BLACKLISTED", "KYC processing failed: Customer is blacklisted"));
         }
 
-        // Simulate external KYC service call with delay
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        // Checked after the blacklist so a newly blacklisted customer never rides on an old approval
+        Optional<Map<String, Object>> cached = kycResultCache.get(customerId, customerData);
+        if (cached.isPresent()) {
+            logger.info("KYC processing completed for customer: {} (cached result)", customerId);
+            return CompletableFuture.completedFuture(toKycData(cached.get(), customerData));
         }
 
-        Map<String, Object> kycData = new HashMap<>();
-        kycData.put("customerId", customerId);
-        kycData.put("kycLevel", "BASIC");
-        kycData.put("status", "APPROVED");
-        kycData.put("documentVerified", true);
-        
+        // Double submissions arriving together share one provider call; each still gets its own customer data merged in
+        return providerCalls.execute(KycResultCache.key(customerId, customerData), () ->
+                        faultInjector.callAsync("kyc", () -> kycProviderClient.verify(customerId, customerData))
+                                .orTimeout(providerProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                                .thenApply(providerResult -> {
+                                    kycResultCache.putIfApproved(customerId, customerData, providerResult);
+                                    return providerResult;
+                                }))
+                .thenApply(providerResult -> {
+                    logger.info("KYC processing completed for customer: {}", customerId);
+                    return toKycData(providerResult, customerData);
+                });
+    }
+
+    private static Map<String, Object> toKycData(Map<String, Object> providerResult, Map<String, Object> customerData) {
+        Map<String, Object> kycData = new HashMap<>(providerResult);
+
         // Pass through customer data from original request
         if (customerData != null) {
             kycData.putAll(customerData);
         }
-
-        logger.info("KYC processing completed for customer: {}", customerId);
         return kycData;
     }
 }
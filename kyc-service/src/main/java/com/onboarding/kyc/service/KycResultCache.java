@@ -0,0 +1,85 @@
+package com.onboarding.kyc.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onboarding.kyc.config.KycCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class KycResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(KycResultCache.class);
+
+    private final KycCacheProperties properties;
+    private final Cache<Key, Map<String, Object>> cache;
+
+    public KycResultCache(KycCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size tagged cache=kyc-results
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "kyc-results");
+    }
+
+    public Optional<Map<String, Object>> get(String customerId, Map<String, Object> customerData) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(key(customerId, customerData)));
+    }
+
+    // Only approvals are reused; anything else is re-checked on the next submission
+    public void putIfApproved(String customerId, Map<String, Object> customerData, Map<String, Object> providerResult) {
+        if (properties.isEnabled() && "APPROVED".equals(providerResult.get("status"))) {
+            cache.put(key(customerId, customerData), Map.copyOf(providerResult));
+        }
+    }
+
+    public void invalidate(String customerId) {
+        cache.asMap().keySet().removeIf(key -> key.customerId().equals(customerId));
+        logger.info("Invalidated cached KYC results for customer: {}", customerId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        logger.info("Invalidated all cached KYC results");
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    static Key key(String customerId, Map<String, Object> customerData) {
+        Object documentType = customerData != null ? customerData.get("documentType") : null;
+        Object documentNumber = customerData != null ? customerData.get("documentNumber") : null;
+        return new Key(customerId,
+                documentType != null ? documentType.toString() : "",
+                fingerprint(documentNumber != null ? documentNumber.toString() : ""));
+    }
+
+    // The document number itself is never held in memory as a key, only its SHA-256
+    private static String fingerprint(String documentNumber) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(documentNumber.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    record Key(String customerId, String documentType, String documentFingerprint) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.onboarding.kyc.listener;
+
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.KYCCompletedEvent;
+import com.onboarding.events.KYCFailedEvent;
+import com.onboarding.events.OnboardingRequestedEvent;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.TransientStageException;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
+import com.onboarding.kyc.config.KycProviderProperties;
+import com.onboarding.kyc.config.RabbitMQConfig;
+import com.onboarding.kyc.service.KycProcessingService;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Every delivery is settled on the channel exactly once, with its own delivery tag, after the provider answers
+class KycEventListenerTest {
+    private static final long DELIVERY_TAG = 42L;
+
+    private final MessageConverter messageConverter = new RabbitMQConfig().jsonMessageConverter();
+    private KycProcessingService kycProcessingService;
+    private RabbitTemplate rabbitTemplate;
+    private TieredRetryMessageRecoverer retryRecoverer;
+    private Channel channel;
+    private KycEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        kycProcessingService = mock(KycProcessingService.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.getMessageConverter()).thenReturn(messageConverter);
+        retryRecoverer = mock(TieredRetryMessageRecoverer.class);
+        channel = mock(Channel.class);
+        listener = new KycEventListener(kycProcessingService, rabbitTemplate, retryRecoverer,
+                new KycProviderProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testAcksOnlyOnceTheProviderCompletes() throws Exception {
+        CompletableFuture<Map<String, Object>> verification = new CompletableFuture<>();
+        when(kycProcessingService.processKyc(eq("CUST-1"), anyMap())).thenReturn(verification);
+
+        listener.handleOnboardingRequested(message(), channel);
+        verifyNoInteractions(channel);
+
+        verification.complete(Map.of("status", "APPROVED"));
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME), eq(EventRoutingKeys.KYC_COMPLETED),
+                any(KYCCompletedEvent.class));
+        verify(channel).basicAck(DELIVERY_TAG, false);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void testTransientFailureIsParkedOnARetryTierAndAcked() throws Exception {
+        Message message = message();
+        TransientStageException failure = new TransientStageException("KYC_PROVIDER_TIMEOUT", "timed out");
+        when(kycProcessingService.processKyc(eq("CUST-1"), anyMap())).thenReturn(CompletableFuture.failedFuture(failure));
+
+        listener.handleOnboardingRequested(message, channel);
+
+        verify(retryRecoverer).recover(message, failure);
+        verify(channel).basicAck(DELIVERY_TAG, false);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void testTransientFailureThatCannotBeParkedIsRequeued() throws Exception {
+        when(kycProcessingService.processKyc(eq("CUST-1"), anyMap())).thenReturn(
+                CompletableFuture.failedFuture(new TransientStageException("KYC_PROVIDER_TIMEOUT", "timed out")));
+        doThrow(new AmqpIOException(new IOException("channel closed"))).when(retryRecoverer).recover(any(), any());
+
+        listener.handleOnboardingRequested(message(), channel);
+
+        verify(channel).basicNack(DELIVERY_TAG, false, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void testTransientFailureWithRetriesExhaustedIsRejectedToTheDlq() throws Exception {
+        when(kycProcessingService.processKyc(eq("CUST-1"), anyMap())).thenReturn(
+                CompletableFuture.failedFuture(new TransientStageException("KYC_PROVIDER_TIMEOUT", "timed out")));
+        doThrow(new AmqpRejectAndDontRequeueException("retries exhausted")).when(retryRecoverer).recover(any(), any());
+
+        listener.handleOnboardingRequested(message(), channel);
+
+        verify(channel).basicNack(DELIVERY_TAG, false, false);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void testPermanentFailureIsReportedAndAckedWithoutRetrying() throws Exception {
+        when(kycProcessingService.processKyc(eq("CUST-1"), anyMap())).thenReturn(
+                CompletableFuture.failedFuture(new PermanentStageException("KYC_BLACKLISTED", "blacklisted")));
+
+        listener.handleOnboardingRequested(message(), channel);
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME), eq(EventRoutingKeys.KYC_FAILED),
+                any(KYCFailedEvent.class));
+        verifyNoInteractions(retryRecoverer);
+        verify(channel).basicAck(DELIVERY_TAG, false);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void testUnreadableMessageIsRejected() throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(DELIVERY_TAG);
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("__TypeId__", OnboardingRequestedEvent.class.getName());
+
+        listener.handleOnboardingRequested(new Message("{not json".getBytes(StandardCharsets.UTF_8), properties), channel);
+
+        verifyNoInteractions(kycProcessingService);
+        verify(channel).basicNack(DELIVERY_TAG, false, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    private Message message() {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(DELIVERY_TAG);
+        return messageConverter.toMessage(
+                new OnboardingRequestedEvent("REQ-1", "CUST-1", Map.of("name", "Test User")), properties);
+    }
+}
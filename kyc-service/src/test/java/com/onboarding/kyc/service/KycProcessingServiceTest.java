@@ -1,11 +1,23 @@
 package com.onboarding.kyc.service;
 
 import com.onboarding.events.ErrorTriggerProperties;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.fault.FaultInjectionProperties;
+import com.onboarding.events.fault.FaultInjector;
+import com.onboarding.events.trigger.ErrorTriggerMatchers;
+import com.onboarding.kyc.client.StubKycProviderClient;
+import com.onboarding.kyc.config.KycCacheProperties;
+import com.onboarding.kyc.config.KycProviderProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,8 +28,7 @@ class KycProcessingServiceTest {
     @BeforeEach
     void setUp() {
         ErrorTriggerProperties errorTriggerProperties = new ErrorTriggerProperties();
-        ErrorTriggerService errorTriggerService = new ErrorTriggerService(errorTriggerProperties);
-        kycProcessingService = new KycProcessingService(errorTriggerService);
+        kycProcessingService = service(errorTriggerProperties);
     }
 
     @Test
@@ -27,7 +38,7 @@ class KycProcessingServiceTest {
         customerData.put("name", "Test User");
         customerData.put("email", "test@example.com");
 
-        Map<String, Object> result = kycProcessingService.processKyc(customerId, customerData);
+        Map<String, Object> result = kycProcessingService.processKyc(customerId, customerData).join();
 
         assertNotNull(result);
         assertEquals(customerId, result.get("customerId"));
@@ -35,4 +46,78 @@ class KycProcessingServiceTest {
         assertEquals("APPROVED", result.get("status"));
         assertTrue((Boolean) result.get("documentVerified"));
     }
+
+    @Test
+    void testBlacklistedCustomerFailsPermanently() {
+        ErrorTriggerProperties errorTriggerProperties = new ErrorTriggerProperties();
+        errorTriggerProperties.getKyc().getBlacklistCustomerIds().add("BLACKLIST-001");
+        KycProcessingService service = service(errorTriggerProperties);
+
+        CompletableFuture<Map<String, Object>> result = service.processKyc("BLACKLIST-001", new HashMap<>());
+
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        PermanentStageException cause = assertInstanceOf(PermanentStageException.class, e.getCause());
+        assertEquals("KYC_BLACKLISTED", cause.getErrorCode());
+    }
+
+    @Test
+    void testRepeatSubmissionReusesApprovedResult() {
+        AtomicInteger providerCalls = new AtomicInteger();
+        KycProcessingService service = new KycProcessingService(
+                new ErrorTriggerService(new ErrorTriggerMatchers(new ErrorTriggerProperties())),
+                (customerId, customerData) -> {
+                    providerCalls.incrementAndGet();
+                    return CompletableFuture.completedFuture(Map.of("customerId", customerId, "status", "APPROVED"));
+                },
+                new KycProviderProperties(),
+                new KycResultCache(new KycCacheProperties(), new SimpleMeterRegistry()),
+                new FaultInjector(new FaultInjectionProperties(), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+
+        service.processKyc("CUST-123", Map.of("documentType", "PASSPORT", "documentNumber", "DOC1", "name", "First")).join();
+        Map<String, Object> repeat = service.processKyc("CUST-123",
+                Map.of("documentType", "PASSPORT", "documentNumber", "DOC1", "name", "Second")).join();
+        service.processKyc("CUST-123", Map.of("documentType", "PASSPORT", "documentNumber", "DOC2")).join();
+
+        assertEquals(2, providerCalls.get());
+        assertEquals("APPROVED", repeat.get("status"));
+        assertEquals("Second", repeat.get("name"));
+    }
+
+    @Test
+    void testConcurrentSubmissionsShareOneProviderCall() {
+        AtomicInteger providerCalls = new AtomicInteger();
+        CompletableFuture<Map<String, Object>> providerResult = new CompletableFuture<>();
+        KycProcessingService service = new KycProcessingService(
+                new ErrorTriggerService(new ErrorTriggerMatchers(new ErrorTriggerProperties())),
+                (customerId, customerData) -> {
+                    providerCalls.incrementAndGet();
+                    return providerResult;
+                },
+                new KycProviderProperties(),
+                new KycResultCache(new KycCacheProperties(), new SimpleMeterRegistry()),
+                new FaultInjector(new FaultInjectionProperties(), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+
+        CompletableFuture<Map<String, Object>> first = service.processKyc("CUST-123",
+                Map.of("documentType", "PASSPORT", "documentNumber", "DOC1", "name", "First"));
+        CompletableFuture<Map<String, Object>> second = service.processKyc("CUST-123",
+                Map.of("documentType", "PASSPORT", "documentNumber", "DOC1", "name", "Second"));
+        providerResult.complete(Map.of("customerId", "CUST-123", "status", "APPROVED"));
+
+        assertEquals(1, providerCalls.get());
+        assertEquals("First", first.join().get("name"));
+        assertEquals("Second", second.join().get("name"));
+        assertEquals("APPROVED", second.join().get("status"));
+    }
+
+    private static KycProcessingService service(ErrorTriggerProperties errorTriggerProperties) {
+        KycProviderProperties providerProperties = new KycProviderProperties();
+        providerProperties.getLatency().setMean(Duration.ofMillis(10));
+        return new KycProcessingService(new ErrorTriggerService(new ErrorTriggerMatchers(errorTriggerProperties)),
+                new StubKycProviderClient(providerProperties), providerProperties,
+                new KycResultCache(new KycCacheProperties(), new SimpleMeterRegistry()),
+                new FaultInjector(new FaultInjectionProperties(), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+    }
 }
@@ -1,14 +1,16 @@
 package com.onboarding.notification;
 
-import com.onboarding.events.ErrorTriggerProperties;
+import com.onboarding.events.fault.FaultInjectionConfiguration;
+import com.onboarding.events.outbox.OutboxConfiguration;
+import com.onboarding.events.trigger.ErrorTriggerConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableRetry
-@EnableConfigurationProperties(ErrorTriggerProperties.class)
+@EnableScheduling
+@Import({ErrorTriggerConfiguration.class, FaultInjectionConfiguration.class, OutboxConfiguration.class})
 public class NotificationServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(NotificationServiceApplication.class, args);
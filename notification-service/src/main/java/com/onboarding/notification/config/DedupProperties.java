@@ -0,0 +1,40 @@
+package com.onboarding.notification.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.email.dedup")
+public class DedupProperties {
+    // How long a queued (requestId, email type) is remembered in memory; older duplicates are caught by the database
+    private Duration hotTtl = Duration.ofHours(1);
+    private long hotMaxSize = 100_000;
+    // How long the database remembers it; a redelivery later than this would be sent again
+    private Duration retention = Duration.ofDays(30);
+
+    public Duration getHotTtl() {
+        return hotTtl;
+    }
+
+    public void setHotTtl(Duration hotTtl) {
+        this.hotTtl = hotTtl;
+    }
+
+    public long getHotMaxSize() {
+        return hotMaxSize;
+    }
+
+    public void setHotMaxSize(long hotMaxSize) {
+        this.hotMaxSize = hotMaxSize;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,39 @@
+package com.onboarding.notification.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.email.templates")
+public class EmailTemplateProperties {
+    // Any Spring resource location, e.g. file:/etc/onboarding/templates/ to edit templates without a rebuild
+    private String location = "classpath:templates/";
+    private boolean hotReload = false;
+    private Duration reloadInterval = Duration.ofSeconds(5);
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public boolean isHotReload() {
+        return hotReload;
+    }
+
+    public void setHotReload(boolean hotReload) {
+        this.hotReload = hotReload;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+}
@@ -3,16 +3,25 @@ package com.onboarding.notification.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.listener.ListenerContainerConfigurer;
+import com.onboarding.events.listener.ListenerProperties;
+import com.onboarding.events.retry.RetryProperties;
+import com.onboarding.events.retry.RetryTopology;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
+@EnableConfigurationProperties({ListenerProperties.class, RetryProperties.class})
 public class RabbitMQConfig {
     public static final String EXCHANGE_NAME = "onboarding.exchange";
     public static final String QUEUE_NAME = "notification.queue";
@@ -82,6 +91,16 @@ public class RabbitMQConfig {
                 .with(EventRoutingKeys.KYC_COMPLETED);
     }
 
+    @Bean
+    public RetryTopology retryTopology(RetryProperties retryProperties) {
+        return new RetryTopology(retryProperties, QUEUE_NAME, "kyc.initiated.notification.queue", "kyc.successful.notification.queue");
+    }
+
+    @Bean
+    public Declarables retryQueues(RetryTopology retryTopology) {
+        return retryTopology.declarables();
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -93,16 +112,27 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter());
+        // Unroutable events are returned so the publisher can fail the confirm instead of dropping them
+        template.setMandatory(true);
         return template;
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               ListenerProperties listenerProperties,
+                                                                               RetryTopology retryTopology,
+                                                                               Environment environment) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
         // Don't requeue rejected messages - let them go to DLQ
         factory.setDefaultRequeueRejected(false);
+        // Fail fast on the listener thread; retries wait on the broker in TTL-tiered retry queues
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(new TieredRetryMessageRecoverer(rabbitTemplate(connectionFactory), retryTopology))
+                .build());
+        ListenerContainerConfigurer.configure(factory, listenerProperties, environment);
         return factory;
     }
 }
@@ -0,0 +1,78 @@
+package com.onboarding.notification.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.email.smtp-pool")
+public class SmtpPoolProperties {
+    private boolean enabled = true;
+    // Concurrent connections (and so concurrent sends) to the mail server
+    private int maxConnections = 4;
+    // Servers commonly cap messages per session; the connection is replaced before reaching that
+    private int maxMessagesPerConnection = 100;
+    // Idle connections are closed after this, well before the server's own idle timeout would drop them
+    private Duration idleTimeout = Duration.ofSeconds(60);
+    // A connection idle for longer than this is checked with NOOP before it is reused
+    private Duration validateAfterIdle = Duration.ofSeconds(5);
+    private Duration borrowTimeout = Duration.ofSeconds(30);
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxMessagesPerConnection() {
+        return maxMessagesPerConnection;
+    }
+
+    public void setMaxMessagesPerConnection(int maxMessagesPerConnection) {
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getValidateAfterIdle() {
+        return validateAfterIdle;
+    }
+
+    public void setValidateAfterIdle(Duration validateAfterIdle) {
+        this.validateAfterIdle = validateAfterIdle;
+    }
+
+    public Duration getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    public void setBorrowTimeout(Duration borrowTimeout) {
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    public Duration getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    public void setEvictionInterval(Duration evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+}
@@ -3,14 +3,19 @@ package com.onboarding.notification.listener;
 import com.onboarding.events.AccountProvisionedEvent;
 import com.onboarding.events.EventRoutingKeys;
 import com.onboarding.events.KYCCompletedEvent;
-import com.onboarding.events.NotificationSentEvent;
+import com.onboarding.events.NotificationFailedEvent;
 import com.onboarding.events.OnboardingRequestedEvent;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.StageFailureMetrics;
+import com.onboarding.events.retry.RetryTopology;
 import com.onboarding.notification.config.RabbitMQConfig;
 import com.onboarding.notification.service.NotificationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -22,10 +27,13 @@ public class NotificationEventListener {
 
     private final NotificationService notificationService;
     private final RabbitTemplate rabbitTemplate;
+    private final StageFailureMetrics failureMetrics;
 
-    public NotificationEventListener(NotificationService notificationService, RabbitTemplate rabbitTemplate) {
+    public NotificationEventListener(NotificationService notificationService, RabbitTemplate rabbitTemplate,
+                                     MeterRegistry meterRegistry) {
         this.notificationService = notificationService;
         this.rabbitTemplate = rabbitTemplate;
+        this.failureMetrics = new StageFailureMetrics(meterRegistry, "notification");
     }
 
     @RabbitListener(queues = "kyc.initiated.notification.queue")
@@ -39,14 +47,14 @@ public class NotificationEventListener {
             notificationData.put("customerEmail", event.getCustomerData().get("email"));
             notificationData.put("customerName", event.getCustomerData().get("name"));
 
-            notificationService.sendNotification(
+            notificationService.enqueue(
                     event.getRequestId(),
                     null, // No account ID yet
                     notificationData,
                     com.onboarding.notification.service.EmailType.KYC_INITIATED
             );
 
-            logger.info("KYC initiated email sent for requestId: {}", event.getRequestId());
+            logger.info("KYC initiated email queued for requestId: {}", event.getRequestId());
         } catch (Exception e) {
             logger.error("Error sending KYC initiated notification for requestId: {}", event.getRequestId(), e);
             // Don't throw - this is a notification, not critical to the workflow
@@ -62,14 +70,14 @@ public class NotificationEventListener {
             notificationData.put("customerEmail", event.getKycData().get("email"));
             notificationData.put("customerName", event.getKycData().get("name"));
 
-            notificationService.sendNotification(
+            notificationService.enqueue(
                     event.getRequestId(),
                     null, // No account ID yet
                     notificationData,
                     com.onboarding.notification.service.EmailType.KYC_SUCCESSFUL
             );
 
-            logger.info("KYC successful email sent for requestId: {}", event.getRequestId());
+            logger.info("KYC successful email queued for requestId: {}", event.getRequestId());
         } catch (Exception e) {
             logger.error("Error sending KYC successful notification for requestId: {}", event.getRequestId(), e);
             // Don't throw - this is a notification, not critical to the workflow
@@ -77,7 +85,8 @@ public class NotificationEventListener {
     }
 
     @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-    public void handleAccountProvisioned(AccountProvisionedEvent event) {
+    public void handleAccountProvisioned(AccountProvisionedEvent event,
+                                         @Header(name = RetryTopology.RETRY_COUNT_HEADER, required = false) Integer retryCount) {
         logger.info("Received AccountProvisionedEvent for requestId: {}, accountId: {}",
                 event.getRequestId(), event.getAccountId());
 
@@ -88,27 +97,26 @@ public class NotificationEventListener {
             enhancedDetails.put("customerEmail", customerEmail);
             enhancedDetails.put("customerName", extractCustomerName(event.getAccountDetails()));
 
-            String deliveryStatus = notificationService.sendNotification(
+            // NotificationSentEvent follows from EmailDispatcher once the email has actually gone out
+            notificationService.enqueue(
                     event.getRequestId(),
                     event.getAccountId(),
                     enhancedDetails,
                     com.onboarding.notification.service.EmailType.ACCOUNT_CREATED
             );
 
-            NotificationSentEvent sentEvent = new NotificationSentEvent(
-                    event.getRequestId(),
-                    "EMAIL",
-                    deliveryStatus
-            );
-
+            logger.info("Account created email queued for requestId: {}", event.getRequestId());
+        } catch (PermanentStageException e) {
+            // Retrying a deterministic rejection cannot succeed, so report it now instead of via the DLQ
+            failureMetrics.record(e);
+            logger.warn("Notification rejected for requestId: {} ({}): {}", event.getRequestId(), e.getErrorCode(), e.getMessage());
             rabbitTemplate.convertAndSend(
                     RabbitMQConfig.EXCHANGE_NAME,
-                    EventRoutingKeys.NOTIFICATION_SENT,
-                    sentEvent
+                    EventRoutingKeys.NOTIFICATION_FAILED,
+                    new NotificationFailedEvent(event.getRequestId(), e.getErrorCode(), e.getMessage(), retryCount != null ? retryCount : 0)
             );
-
-            logger.info("Published NotificationSentEvent for requestId: {}", event.getRequestId());
         } catch (Exception e) {
+            failureMetrics.record(e);
             logger.error("Error sending notification for requestId: {}", event.getRequestId(), e);
             throw new RuntimeException("Notification sending failed", e);
         }
@@ -0,0 +1,74 @@
+package com.onboarding.notification.mail;
+
+import com.onboarding.notification.config.SmtpPoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// JavaMailSenderImpl opens, authenticates and closes a connection on every send() call. This keeps the same
+// message handling but sends over connections borrowed from an SmtpTransportPool.
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private final SmtpTransportPool pool;
+
+    public PooledJavaMailSender(String server, SmtpPoolProperties properties, MeterRegistry meterRegistry) {
+        // connectTransport() reads host, port and credentials when called, so they can still be set after this
+        this.pool = new SmtpTransportPool(server, this::connectTransport, properties, meterRegistry);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        for (int i = 0; i < mimeMessages.length; i++) {
+            MimeMessage mimeMessage = mimeMessages[i];
+            Object original = originalMessages != null ? originalMessages[i] : mimeMessage;
+            try {
+                if (mimeMessage.getSentDate() == null) {
+                    mimeMessage.setSentDate(new Date());
+                }
+                String messageId = mimeMessage.getMessageID();
+                mimeMessage.saveChanges();
+                if (messageId != null) {
+                    // Preserve an explicitly set message id, as JavaMailSenderImpl does
+                    mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+                }
+                Address[] addresses = mimeMessage.getAllRecipients();
+                pool.send(mimeMessage, addresses != null ? addresses : new Address[0]);
+            } catch (AuthenticationFailedException e) {
+                throw new MailAuthenticationException(e);
+            } catch (MessagingException e) {
+                failedMessages.put(original, e);
+            }
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${onboarding.email.smtp-pool.eviction-interval:30s}")
+    public void evictIdleConnections() {
+        pool.evictIdle();
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+    }
+
+    SmtpTransportPool pool() {
+        return pool;
+    }
+}
@@ -0,0 +1,169 @@
+package com.onboarding.notification.mail;
+
+import com.onboarding.notification.config.SmtpPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Connected, authenticated transports to one mail server. Each send borrows one, so the EHLO/STARTTLS/AUTH
+// handshake is paid once per connection rather than once per message; the semaphore caps how many
+// connections (and concurrent sends) the server sees.
+public class SmtpTransportPool {
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    @FunctionalInterface
+    public interface Connector {
+        Transport connect() throws MessagingException;
+    }
+
+    private final String server;
+    private final Connector connector;
+    private final SmtpPoolProperties properties;
+    private final Semaphore permits;
+    // Most recently used first: the head is the connection most likely to still be open, and the tail ages out
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final Counter opened;
+    private volatile boolean closed;
+
+    public SmtpTransportPool(String server, Connector connector, SmtpPoolProperties properties, MeterRegistry meterRegistry) {
+        this.server = server;
+        this.connector = connector;
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getMaxConnections(), true);
+        this.opened = Counter.builder("onboarding.smtp.connections.opened")
+                .description("SMTP connections opened (each one a full EHLO/AUTH handshake)")
+                .tag("server", server)
+                .register(meterRegistry);
+        Gauge.builder("onboarding.smtp.connections", idle, Deque::size)
+                .description("Pooled SMTP connections")
+                .tag("server", server)
+                .tag("state", "idle")
+                .register(meterRegistry);
+        Gauge.builder("onboarding.smtp.connections", this,
+                        pool -> properties.getMaxConnections() - pool.permits.availablePermits())
+                .description("Pooled SMTP connections")
+                .tag("server", server)
+                .tag("state", "active")
+                .register(meterRegistry);
+    }
+
+    public void send(MimeMessage message, Address[] recipients) throws MessagingException {
+        acquire();
+        try {
+            // A failed send is not retried here: the server may have accepted the message before the connection
+            // broke, and only the caller knows whether sending it again is safe. The broken connection is dropped.
+            sendOn(borrow(), message, recipients);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Closes connections that have sat idle past idleTimeout, oldest first
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        Iterator<PooledTransport> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext()) {
+            PooledTransport connection = oldestFirst.next();
+            if (connection.lastUsed - cutoff < 0 && idle.removeLastOccurrence(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    public int idleConnections() {
+        return idle.size();
+    }
+
+    private void sendOn(PooledTransport connection, MimeMessage message, Address[] recipients) throws MessagingException {
+        boolean reusable = false;
+        try {
+            connection.transport.sendMessage(message, recipients);
+            connection.messagesSent++;
+            reusable = true;
+        } catch (SendFailedException e) {
+            // Rejected recipients: the server answered, so the session itself is still good
+            reusable = true;
+            throw e;
+        } finally {
+            release(connection, reusable);
+        }
+    }
+
+    private void acquire() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(properties.getBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for an SMTP connection to " + server);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection to " + server, e);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        long validateBefore = System.nanoTime() - properties.getValidateAfterIdle().toNanos();
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            // isConnected() costs a NOOP round trip, so only connections idle for a while are checked
+            if (connection.lastUsed - validateBefore >= 0 || connection.transport.isConnected()) {
+                return connection;
+            }
+            close(connection);
+        }
+        return open();
+    }
+
+    private PooledTransport open() throws MessagingException {
+        PooledTransport connection = new PooledTransport(connector.connect());
+        opened.increment();
+        return connection;
+    }
+
+    private void release(PooledTransport connection, boolean reusable) {
+        if (reusable && !closed && connection.messagesSent < properties.getMaxMessagesPerConnection()) {
+            connection.lastUsed = System.nanoTime();
+            idle.offerFirst(connection);
+        } else {
+            close(connection);
+        }
+    }
+
+    private void close(PooledTransport connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Failed to close SMTP connection to {}", server, e);
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private long lastUsed = System.nanoTime();
+        private int messagesSent;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.onboarding.notification.model;
+
+import com.onboarding.notification.service.EmailType;
+import com.onboarding.notification.template.EmailModel;
+
+import java.util.Locale;
+
+// One email_outbox row: everything needed to render and send the email later, on another thread.
+// rateReserved: the row was deferred to a send slot its domain's rate limiter already reserved for it.
+// delivered: the SMTP server accepted it on an earlier claim, but the outcome was never recorded.
+public record QueuedEmail(long id, String requestId, EmailType emailType, String recipient, String recipientDomain,
+                          EmailModel model, int attempts, boolean rateReserved, boolean delivered) {
+
+    public static QueuedEmail pending(String requestId, EmailType emailType, String recipient, EmailModel model) {
+        return new QueuedEmail(0L, requestId, emailType, recipient, domainOf(recipient), model, 0, false, false);
+    }
+
+    static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+        return at >= 0 ? recipient.substring(at + 1).trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
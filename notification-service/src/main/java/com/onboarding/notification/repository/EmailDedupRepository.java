@@ -0,0 +1,33 @@
+package com.onboarding.notification.repository;
+
+import com.onboarding.notification.service.EmailType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+@Repository
+public class EmailDedupRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO email_dedup (request_id, email_type) VALUES (:requestId, :emailType) ON CONFLICT DO NOTHING";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM email_dedup WHERE created_at < now() - make_interval(secs => :retentionSeconds)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EmailDedupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // false if this (requestId, email type) was already recorded
+    public boolean insertIfAbsent(String requestId, EmailType emailType) {
+        return jdbcTemplate.update(INSERT_SQL, new MapSqlParameterSource("requestId", requestId)
+                .addValue("emailType", emailType.name())) > 0;
+    }
+
+    public int purgeOlderThan(Duration retention) {
+        return jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("retentionSeconds", retention.toMillis() / 1000.0));
+    }
+}
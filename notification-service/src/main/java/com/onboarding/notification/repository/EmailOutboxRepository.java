@@ -0,0 +1,164 @@
+package com.onboarding.notification.repository;
+
+import com.onboarding.notification.model.QueuedEmail;
+import com.onboarding.notification.service.EmailType;
+import com.onboarding.notification.template.EmailModel;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+@Repository
+public class EmailOutboxRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (request_id, email_type, recipient, recipient_domain, customer_name, customer_id, " +
+            "account_id, account_status, account_type) VALUES (:requestId, :emailType, :recipient, :recipientDomain, " +
+            ":customerName, :customerId, :accountId, :accountStatus, :accountType)";
+
+    // Held back by next_attempt_at, and not inserted at all if the email superseding it is already queued. Two
+    // emails for one request arriving in the same instant may both miss each other; then both are sent, as before.
+    private static final String INSERT_UNLESS_SUPERSEDED_SQL =
+            "INSERT INTO email_outbox (request_id, email_type, recipient, recipient_domain, customer_name, customer_id, " +
+            "account_id, account_status, account_type, next_attempt_at) SELECT :requestId, :emailType, :recipient, " +
+            ":recipientDomain, :customerName, :customerId, :accountId, :accountStatus, :accountType, " +
+            "now() + make_interval(secs => :holdSeconds) WHERE NOT EXISTS (SELECT 1 FROM email_outbox " +
+            "WHERE request_id = :requestId AND email_type = :supersededBy)";
+
+    // One statement, so the superseded email cannot be claimed between the update and the insert
+    private static final String INSERT_SUPERSEDING_SQL =
+            "WITH superseded AS (UPDATE email_outbox SET status = 'SUPERSEDED' " +
+            "WHERE request_id = :requestId AND email_type = :supersedes AND status = 'PENDING' RETURNING id) " +
+            "INSERT INTO email_outbox (request_id, email_type, recipient, recipient_domain, customer_name, customer_id, " +
+            "account_id, account_status, account_type) VALUES (:requestId, :emailType, :recipient, :recipientDomain, " +
+            ":customerName, :customerId, :accountId, :accountStatus, :accountType) " +
+            "RETURNING (SELECT count(*) FROM superseded)";
+
+    // Claiming moves next_attempt_at forward by the lease, so the claim itself commits at once and no transaction
+    // stays open across the SMTP send. SKIP LOCKED keeps several instances from claiming the same rows.
+    private static final String CLAIM_SQL =
+            "UPDATE email_outbox SET status = 'SENDING', next_attempt_at = now() + make_interval(secs => :leaseSeconds) " +
+            "WHERE id IN (SELECT id FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= now() " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, request_id, email_type, recipient, recipient_domain, customer_name, customer_id, account_id, " +
+            "account_status, account_type, attempts, rate_reserved, sent_at IS NOT NULL AS delivered";
+
+    // Written on its own as soon as the server accepts the email, while the row is still SENDING. A claim that
+    // finds it set only records the outcome and does not send again.
+    private static final String MARK_DELIVERED_SQL =
+            "UPDATE email_outbox SET sent_at = now() WHERE id = :id";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE email_outbox SET status = 'SENT', sent_at = COALESCE(sent_at, now()), last_error = NULL WHERE id = :id";
+
+    private static final String MARK_RETRY_SQL =
+            "UPDATE email_outbox SET status = 'PENDING', attempts = attempts + 1, last_error = :error, rate_reserved = false, " +
+            "next_attempt_at = now() + make_interval(secs => :delaySeconds) WHERE id = :id";
+
+    // Rate-limited rather than failed, so the attempt is not counted. The slot is already reserved, so the row is
+    // sent when it comes due without asking the limiter again.
+    private static final String DEFER_SQL =
+            "UPDATE email_outbox SET status = 'PENDING', rate_reserved = true, " +
+            "next_attempt_at = now() + make_interval(secs => :delaySeconds) WHERE id = :id";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE email_outbox SET status = 'FAILED', attempts = attempts + 1, last_error = :error WHERE id = :id";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM email_outbox WHERE status IN ('SENT', 'FAILED', 'SUPERSEDED') " +
+            "AND created_at < now() - make_interval(secs => :retentionSeconds)";
+
+    private static final RowMapper<QueuedEmail> ROW_MAPPER = (rs, rowNum) -> new QueuedEmail(
+            rs.getLong("id"),
+            rs.getString("request_id"),
+            EmailType.valueOf(rs.getString("email_type")),
+            rs.getString("recipient"),
+            rs.getString("recipient_domain"),
+            new EmailModel(
+                    rs.getString("customer_name"),
+                    rs.getString("customer_id"),
+                    rs.getString("account_id"),
+                    rs.getString("account_status"),
+                    rs.getString("account_type")),
+            rs.getInt("attempts"),
+            rs.getBoolean("rate_reserved"),
+            rs.getBoolean("delivered")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EmailOutboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(QueuedEmail email) {
+        jdbcTemplate.update(INSERT_SQL, toParameters(email));
+    }
+
+    // false if the superseding email was already queued, in which case this one is dropped
+    public boolean insertUnlessSuperseded(QueuedEmail email, EmailType supersededBy, Duration hold) {
+        return jdbcTemplate.update(INSERT_UNLESS_SUPERSEDED_SQL, toParameters(email)
+                .addValue("supersededBy", supersededBy.name())
+                .addValue("holdSeconds", seconds(hold))) > 0;
+    }
+
+    // Returns how many still-pending emails of the superseded type were dropped in favour of this one
+    public int insertSuperseding(QueuedEmail email, EmailType supersedes) {
+        Integer superseded = jdbcTemplate.queryForObject(INSERT_SUPERSEDING_SQL, toParameters(email)
+                .addValue("supersedes", supersedes.name()), Integer.class);
+        return superseded != null ? superseded : 0;
+    }
+
+    public List<QueuedEmail> claimDue(int limit, Duration lease) {
+        return jdbcTemplate.query(CLAIM_SQL, new MapSqlParameterSource("limit", limit)
+                .addValue("leaseSeconds", seconds(lease)), ROW_MAPPER);
+    }
+
+    public void markDelivered(long id) {
+        jdbcTemplate.update(MARK_DELIVERED_SQL, new MapSqlParameterSource("id", id));
+    }
+
+    public void markSent(long id) {
+        jdbcTemplate.update(MARK_SENT_SQL, new MapSqlParameterSource("id", id));
+    }
+
+    public void markForRetry(long id, Duration delay, String error) {
+        jdbcTemplate.update(MARK_RETRY_SQL, new MapSqlParameterSource("id", id)
+                .addValue("delaySeconds", seconds(delay))
+                .addValue("error", error));
+    }
+
+    public void defer(long id, Duration delay) {
+        jdbcTemplate.update(DEFER_SQL, new MapSqlParameterSource("id", id)
+                .addValue("delaySeconds", seconds(delay)));
+    }
+
+    public void markFailed(long id, String error) {
+        jdbcTemplate.update(MARK_FAILED_SQL, new MapSqlParameterSource("id", id)
+                .addValue("error", error));
+    }
+
+    public int purgeCompleted(Duration retention) {
+        return jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("retentionSeconds", seconds(retention)));
+    }
+
+    private static MapSqlParameterSource toParameters(QueuedEmail email) {
+        EmailModel model = email.model();
+        return new MapSqlParameterSource()
+                .addValue("requestId", email.requestId())
+                .addValue("emailType", email.emailType().name())
+                .addValue("recipient", email.recipient())
+                .addValue("recipientDomain", email.recipientDomain())
+                .addValue("customerName", model.customerName())
+                .addValue("customerId", model.customerId())
+                .addValue("accountId", model.accountId())
+                .addValue("accountStatus", model.status())
+                .addValue("accountType", model.accountType());
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.onboarding.notification.service;
+
+import com.onboarding.notification.config.EmailDeliveryProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+// One token bucket per recipient domain, so a burst of mail to one provider is spread out instead of
+// tripping its rate limits, while other domains keep their own budget. A bucket goes into debt rather than
+// refusing: each email over the rate is handed the next free send slot, so a backlog is scheduled once
+// instead of being pushed back together to whenever the next single token arrives.
+@Component
+public class DomainRateLimiter {
+    // A bucket untouched for this long, and full again, can be dropped without losing anything
+    private static final Duration IDLE_BUCKET = Duration.ofMinutes(10);
+
+    private final EmailDeliveryProperties.RateLimit properties;
+    private final LongSupplier nanoTime;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public DomainRateLimiter(EmailDeliveryProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    DomainRateLimiter(EmailDeliveryProperties properties, LongSupplier nanoTime) {
+        this.properties = properties.getRateLimit();
+        this.nanoTime = nanoTime;
+    }
+
+    // Duration.ZERO to send now, otherwise how long until the slot reserved for this email
+    public Duration reserve(String domain) {
+        long now = nanoTime.getAsLong();
+        return Duration.ofNanos(buckets.computeIfAbsent(domain, key -> newBucket(key, now)).reserve(now));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = nanoTime.getAsLong();
+        long cutoff = now - IDLE_BUCKET.toNanos();
+        // A bucket still in debt has slots handed out; dropping it would let new emails send on top of them
+        buckets.values().removeIf(bucket -> bucket.isIdleAndFull(cutoff, now));
+    }
+
+    private TokenBucket newBucket(String domain, long now) {
+        EmailDeliveryProperties.DomainLimit limit = properties.getDomains().get(domain);
+        return limit != null
+                ? new TokenBucket(limit.getPerSecond(), limit.getBurst(), now)
+                : new TokenBucket(properties.getPerSecond(), properties.getBurst(), now);
+    }
+
+    private static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(double perSecond, int burst, long now) {
+            this.tokensPerNano = perSecond / 1_000_000_000.0;
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        synchronized long reserve(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano) - 1;
+            refilledAt = now;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+
+        synchronized boolean isIdleAndFull(long cutoff, long now) {
+            return refilledAt - cutoff < 0 && tokens + (now - refilledAt) * tokensPerNano >= capacity;
+        }
+    }
+}
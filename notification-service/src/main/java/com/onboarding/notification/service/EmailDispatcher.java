@@ -0,0 +1,236 @@
+package com.onboarding.notification.service;
+
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.NotificationFailedEvent;
+import com.onboarding.events.NotificationSentEvent;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.StageFailureMetrics;
+import com.onboarding.events.outbox.OutboxWriter;
+import com.onboarding.notification.config.EmailDeliveryProperties;
+import com.onboarding.notification.config.RabbitMQConfig;
+import com.onboarding.notification.model.QueuedEmail;
+import com.onboarding.notification.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.SendFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Drains email_outbox on its own sender threads, so SMTP latency never reaches the listener threads. Only
+// ACCOUNT_CREATED emails are part of the onboarding pipeline; their outcome is reported back as
+// NotificationSent/NotificationFailed events through the event outbox, in the same transaction as the row update.
+@Component
+public class EmailDispatcher implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+    // Recording a sent email is retried in place: giving up leaves it to the next claim after the lease
+    private static final int RECORD_ATTEMPTS = 3;
+    private static final Duration RECORD_RETRY_DELAY = Duration.ofMillis(100);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final NotificationService notificationService;
+    private final DomainRateLimiter rateLimiter;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailDeliveryProperties properties;
+    private final StageFailureMetrics failureMetrics;
+    private final ExecutorService senders;
+    // Free sender threads; only that many emails are claimed, so nothing claimed waits in an executor queue
+    private final Semaphore idleSenders;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter deferred;
+
+    public EmailDispatcher(EmailOutboxRepository emailOutboxRepository, NotificationService notificationService,
+                           DomainRateLimiter rateLimiter, OutboxWriter outboxWriter,
+                           PlatformTransactionManager transactionManager, EmailDeliveryProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.notificationService = notificationService;
+        this.rateLimiter = rateLimiter;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.failureMetrics = new StageFailureMetrics(meterRegistry, "notification");
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "email-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.idleSenders = new Semaphore(properties.getSenderThreads());
+        this.sent = deliveries(meterRegistry, "sent");
+        this.retried = deliveries(meterRegistry, "retried");
+        this.failed = deliveries(meterRegistry, "failed");
+        this.deferred = deliveries(meterRegistry, "deferred");
+    }
+
+    @Scheduled(fixedDelayString = "${onboarding.email.delivery.poll-interval:200ms}")
+    public void dispatch() {
+        try {
+            int requested;
+            List<QueuedEmail> claimed;
+            do {
+                requested = Math.min(idleSenders.availablePermits(), properties.getBatchSize());
+                if (requested == 0) {
+                    return;
+                }
+                claimed = emailOutboxRepository.claimDue(requested, properties.getLeaseTimeout());
+                for (QueuedEmail email : claimed) {
+                    Duration wait = email.rateReserved() || email.delivered()
+                            ? Duration.ZERO : rateLimiter.reserve(email.recipientDomain());
+                    if (!wait.isZero()) {
+                        emailOutboxRepository.defer(email.id(), wait);
+                        deferred.increment();
+                        continue;
+                    }
+                    idleSenders.acquireUninterruptibly();
+                    senders.execute(() -> {
+                        try {
+                            send(email);
+                        } finally {
+                            idleSenders.release();
+                        }
+                    });
+                }
+            } while (claimed.size() == requested);
+        } catch (RuntimeException e) {
+            logger.error("Email dispatch run failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    public void purgeCompleted() {
+        int purged = emailOutboxRepository.purgeCompleted(properties.getRetention());
+        if (purged > 0) {
+            logger.info("Purged {} delivered or failed emails from the email outbox", purged);
+        }
+    }
+
+    void send(QueuedEmail email) {
+        if (email.delivered()) {
+            logger.info("{} email for requestId: {} was already sent, recording the outcome",
+                    email.emailType(), email.requestId());
+        } else {
+            try {
+                notificationService.deliver(email);
+            } catch (RuntimeException e) {
+                handleFailure(email, e);
+                return;
+            }
+            try {
+                emailOutboxRepository.markDelivered(email.id());
+            } catch (RuntimeException e) {
+                logger.warn("Failed to mark {} email for requestId: {} as delivered", email.emailType(), email.requestId(), e);
+            }
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                recordSent(email);
+                sent.increment();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == RECORD_ATTEMPTS || !pause(RECORD_RETRY_DELAY)) {
+                    // The row stays claimed; once its lease runs out the outcome is recorded, without sending again
+                    logger.error("Sent {} email for requestId: {} but failed to record it",
+                            email.emailType(), email.requestId(), e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void recordSent(QueuedEmail email) {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailOutboxRepository.markSent(email.id());
+            if (email.emailType() == EmailType.ACCOUNT_CREATED) {
+                outboxWriter.enqueue(RabbitMQConfig.EXCHANGE_NAME, EventRoutingKeys.NOTIFICATION_SENT,
+                        new NotificationSentEvent(email.requestId(), "EMAIL", "DELIVERED"));
+            }
+        });
+    }
+
+    private static boolean pause(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void handleFailure(QueuedEmail email, RuntimeException e) {
+        failureMetrics.record(e);
+        int attempts = email.attempts() + 1;
+        if (isRejection(e) || attempts >= properties.getMaxAttempts()) {
+            String errorCode = e instanceof PermanentStageException permanent ? permanent.getErrorCode() : "EMAIL_SEND_FAILED";
+            logger.warn("Giving up on {} email for requestId: {} after {} attempts: {}",
+                    email.emailType(), email.requestId(), attempts, e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> {
+                emailOutboxRepository.markFailed(email.id(), e.getMessage());
+                if (email.emailType() == EmailType.ACCOUNT_CREATED) {
+                    outboxWriter.enqueue(RabbitMQConfig.EXCHANGE_NAME, EventRoutingKeys.NOTIFICATION_FAILED,
+                            new NotificationFailedEvent(email.requestId(), errorCode, e.getMessage(), attempts));
+                }
+            });
+            failed.increment();
+            return;
+        }
+        Duration delay = backoff(attempts);
+        logger.warn("{} email for requestId: {} failed (attempt {}), retrying in {}: {}",
+                email.emailType(), email.requestId(), attempts, delay, e.getMessage());
+        emailOutboxRepository.markForRetry(email.id(), delay, e.getMessage());
+        retried.increment();
+    }
+
+    // Exponential, with the upper half jittered so emails that failed together do not all come back together
+    Duration backoff(int attempts) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long delay = attempts >= 31 ? max : Math.min(max, initial << (attempts - 1));
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    // A recipient the server refused outright will be refused again
+    private static boolean isRejection(RuntimeException e) {
+        if (e instanceof PermanentStageException) {
+            return true;
+        }
+        if (e instanceof MailSendException mailSendException) {
+            return mailSendException.getFailedMessages().values().stream()
+                    .anyMatch(failure -> failure instanceof SendFailedException sendFailed
+                            && sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0);
+        }
+        return false;
+    }
+
+    private static Counter deliveries(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("onboarding.email.deliveries")
+                .description("Email outbox delivery outcomes")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        senders.shutdown();
+        // In-flight sends finish; anything claimed but not sent is picked up again after its lease
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
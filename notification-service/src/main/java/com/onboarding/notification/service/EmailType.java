@@ -3,5 +3,14 @@ package com.onboarding.notification.service;
 public enum EmailType {
     KYC_INITIATED,
     KYC_SUCCESSFUL,
-    ACCOUNT_CREATED
+    ACCOUNT_CREATED;
+
+    // The later email that makes this one redundant if this one has not gone out yet
+    public EmailType supersededBy() {
+        return this == KYC_INITIATED ? KYC_SUCCESSFUL : null;
+    }
+
+    public EmailType supersedes() {
+        return this == KYC_SUCCESSFUL ? KYC_INITIATED : null;
+    }
 }
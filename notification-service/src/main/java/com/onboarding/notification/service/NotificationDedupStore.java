@@ -0,0 +1,85 @@
+package com.onboarding.notification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onboarding.notification.config.DedupProperties;
+import com.onboarding.notification.repository.EmailDedupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Which (requestId, email type) pairs have already been queued. Recent ones are answered from memory; the
+// email_dedup table's primary key is the authority, across restarts and instances.
+@Component
+public class NotificationDedupStore {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDedupStore.class);
+
+    private final EmailDedupRepository repository;
+    private final DedupProperties properties;
+    private final Cache<Key, Boolean> recent;
+    private final Counter suppressedInMemory;
+    private final Counter suppressedInDatabase;
+
+    public NotificationDedupStore(EmailDedupRepository repository, DedupProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(properties.getHotMaxSize())
+                .expireAfterWrite(properties.getHotTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "email-dedup");
+        this.suppressedInMemory = suppressed(meterRegistry, "memory");
+        this.suppressedInDatabase = suppressed(meterRegistry, "database");
+    }
+
+    // true the first time a pair is claimed. Joins the caller's transaction: if that rolls back, so does the claim.
+    public boolean claim(String requestId, EmailType emailType) {
+        Key key = new Key(requestId, emailType);
+        if (recent.getIfPresent(key) != null) {
+            suppressedInMemory.increment();
+            return false;
+        }
+        if (!repository.insertIfAbsent(requestId, emailType)) {
+            recent.put(key, Boolean.TRUE);
+            suppressedInDatabase.increment();
+            return false;
+        }
+        // Remembered only once committed, so a rolled-back enqueue is not suppressed when it is retried
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recent.put(key, Boolean.TRUE);
+                }
+            });
+        } else {
+            recent.put(key, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    public void purgeExpired() {
+        int purged = repository.purgeOlderThan(properties.getRetention());
+        if (purged > 0) {
+            logger.info("Purged {} expired email dedup entries", purged);
+        }
+    }
+
+    private static Counter suppressed(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("onboarding.email.duplicates.suppressed")
+                .description("Emails not queued because the same request already queued that email type")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    private record Key(String requestId, EmailType emailType) {
+    }
+}
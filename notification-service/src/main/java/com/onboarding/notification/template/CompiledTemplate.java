@@ -0,0 +1,54 @@
+package com.onboarding.notification.template;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// A template split once into UTF-8 encoded static segments and the slots between them. Rendering copies the
+// segments as they are and only encodes (and escapes) the slot values.
+public final class CompiledTemplate {
+    private final String name;
+    private final byte[][] segments;
+    private final Slot[] slots;
+
+    private CompiledTemplate(String name, byte[][] segments, Slot[] slots) {
+        this.name = name;
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    public static CompiledTemplate compile(String name, String source) {
+        List<byte[]> segments = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        int from = 0;
+        int start;
+        while ((start = source.indexOf("${", from)) >= 0) {
+            int end = source.indexOf('}', start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder in template " + name + " at offset " + start);
+            }
+            String placeholder = source.substring(start + 2, end).trim();
+            Slot slot = Slot.forPlaceholder(placeholder);
+            if (slot == null) {
+                throw new IllegalArgumentException("Unknown placeholder ${" + placeholder + "} in template " + name);
+            }
+            segments.add(source.substring(from, start).getBytes(StandardCharsets.UTF_8));
+            slots.add(slot);
+            from = end + 1;
+        }
+        segments.add(source.substring(from).getBytes(StandardCharsets.UTF_8));
+        return new CompiledTemplate(name, segments.toArray(new byte[0][]), slots.toArray(new Slot[0]));
+    }
+
+    public void render(EmailModel model, RenderBuffer buffer) {
+        for (int i = 0; i < slots.length; i++) {
+            buffer.write(segments[i]);
+            buffer.writeEscaped(slots[i].value(model));
+        }
+        buffer.write(segments[slots.length]);
+    }
+
+    public String name() {
+        return name;
+    }
+}
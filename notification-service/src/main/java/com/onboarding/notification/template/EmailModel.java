@@ -0,0 +1,5 @@
+package com.onboarding.notification.template;
+
+// Values a notification template can refer to; every ${...} placeholder must name one of these
+public record EmailModel(String customerName, String customerId, String accountId, String status, String accountType) {
+}
@@ -0,0 +1,117 @@
+package com.onboarding.notification.template;
+
+import com.onboarding.notification.config.EmailTemplateProperties;
+import com.onboarding.notification.service.EmailType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// One compiled template per EmailType, loaded from <location>/<email-type>.html (e.g. kyc-initiated.html)
+@Component
+public class EmailTemplates {
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplates.class);
+
+    private static final int POOLED_BUFFERS = 32;
+    private static final int BUFFER_CAPACITY = 8 * 1024;
+    // A buffer grown by an unusually large render is dropped rather than kept around
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    private final ResourceLoader resourceLoader;
+    private final EmailTemplateProperties properties;
+    private final AtomicReference<Loaded> loaded = new AtomicReference<>();
+    // Striped slots rather than a ThreadLocal, so buffers are still reused when listeners run on virtual threads;
+    // taking and returning one is a single atomic swap, with no lock and no queue node
+    private final AtomicReferenceArray<RenderBuffer> buffers = new AtomicReferenceArray<>(POOLED_BUFFERS);
+
+    public EmailTemplates(ResourceLoader resourceLoader, EmailTemplateProperties properties) {
+        this.resourceLoader = resourceLoader;
+        this.properties = properties;
+        try {
+            loaded.set(load());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load email templates from " + properties.getLocation(), e);
+        }
+    }
+
+    // The result holds a pooled buffer until it is closed, so use it in try-with-resources around the send
+    public RenderedEmail render(EmailType emailType, EmailModel model) {
+        CompiledTemplate template = loaded.get().templates().get(emailType);
+        int slot = (int) Thread.currentThread().threadId() & (POOLED_BUFFERS - 1);
+        RenderBuffer buffer = buffers.getAndSet(slot, null);
+        if (buffer == null) {
+            buffer = new RenderBuffer(BUFFER_CAPACITY);
+        }
+        try {
+            template.render(model, buffer);
+        } catch (RuntimeException e) {
+            release(slot, buffer);
+            throw e;
+        }
+        return new RenderedEmail(template.name(), buffer, released -> release(slot, released));
+    }
+
+    private void release(int slot, RenderBuffer buffer) {
+        buffer.reset();
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            buffers.lazySet(slot, buffer);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${onboarding.email.templates.reload-interval:5s}")
+    public void reloadIfChanged() {
+        if (!properties.isHotReload() || lastModified().equals(loaded.get().lastModified())) {
+            return;
+        }
+        try {
+            loaded.set(load());
+            logger.info("Reloaded email templates from {}", properties.getLocation());
+        } catch (IOException | RuntimeException e) {
+            // A half-edited or broken template must not take sends down; keep serving the last good set
+            logger.warn("Failed to reload email templates from {}, keeping the previous ones", properties.getLocation(), e);
+        }
+    }
+
+    private Loaded load() throws IOException {
+        Map<EmailType, CompiledTemplate> templates = new EnumMap<>(EmailType.class);
+        Map<EmailType, Long> lastModified = lastModified();
+        for (EmailType emailType : EmailType.values()) {
+            Resource resource = resource(emailType);
+            templates.put(emailType, CompiledTemplate.compile(resource.getFilename(),
+                    resource.getContentAsString(StandardCharsets.UTF_8)));
+        }
+        return new Loaded(templates, lastModified);
+    }
+
+    private Map<EmailType, Long> lastModified() {
+        Map<EmailType, Long> lastModified = new EnumMap<>(EmailType.class);
+        for (EmailType emailType : EmailType.values()) {
+            try {
+                lastModified.put(emailType, resource(emailType).lastModified());
+            } catch (IOException e) {
+                lastModified.put(emailType, 0L);
+            }
+        }
+        return lastModified;
+    }
+
+    private Resource resource(EmailType emailType) {
+        String location = properties.getLocation();
+        String fileName = emailType.name().toLowerCase(Locale.ROOT).replace('_', '-') + ".html";
+        return resourceLoader.getResource(location.endsWith("/") ? location + fileName : location + "/" + fileName);
+    }
+
+    private record Loaded(Map<EmailType, CompiledTemplate> templates, Map<EmailType, Long> lastModified) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.onboarding.notification.template;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Growable byte buffer templates render into. Buffers are pooled by EmailTemplates, so once warmed up
+// a render allocates nothing.
+public final class RenderBuffer {
+    private byte[] bytes;
+    private int size;
+
+    public RenderBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    void write(byte[] segment) {
+        ensureCapacity(segment.length);
+        System.arraycopy(segment, 0, bytes, size, segment.length);
+        size += segment.length;
+    }
+
+    // HTML-escapes and UTF-8 encodes in one pass; values are customer-supplied (names in particular)
+    void writeEscaped(String value) {
+        if (value == null) {
+            return;
+        }
+        // Worst case per char: a 6 byte entity (&quot;) or 3 bytes of UTF-8
+        ensureCapacity(value.length() * 6);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> append("&amp;");
+                case '<' -> append("&lt;");
+                case '>' -> append("&gt;");
+                case '"' -> append("&quot;");
+                case '\'' -> append("&#39;");
+                default -> {
+                    if (c < 0x80) {
+                        bytes[size++] = (byte) c;
+                    } else if (c < 0x800) {
+                        bytes[size++] = (byte) (0xC0 | (c >> 6));
+                        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                        bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else if (Character.isSurrogate(c)) {
+                        // Unpaired surrogate, as String.getBytes would write it
+                        bytes[size++] = '?';
+                    } else {
+                        bytes[size++] = (byte) (0xE0 | (c >> 12));
+                        bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+    }
+
+    public InputStream inputStream() {
+        return new ByteArrayInputStream(bytes, 0, size);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    private void append(String entity) {
+        for (int i = 0; i < entity.length(); i++) {
+            bytes[size++] = (byte) entity.charAt(i);
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
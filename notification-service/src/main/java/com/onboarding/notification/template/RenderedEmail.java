@@ -0,0 +1,75 @@
+package com.onboarding.notification.template;
+
+import jakarta.activation.DataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// A rendered body still sitting in its pooled buffer. JavaMail reads it from there while sending, so the body is
+// never copied; close() hands the buffer back, after which the body must not be read again.
+public final class RenderedEmail implements AutoCloseable {
+    private static final String CONTENT_TYPE = "text/html; charset=UTF-8";
+
+    private final String name;
+    private final RenderBuffer buffer;
+    private final Consumer<RenderBuffer> release;
+    private boolean closed;
+
+    RenderedEmail(String name, RenderBuffer buffer, Consumer<RenderBuffer> release) {
+        this.name = name;
+        this.buffer = buffer;
+        this.release = release;
+    }
+
+    public DataSource dataSource() {
+        return new DataSource() {
+            @Override
+            public InputStream getInputStream() {
+                checkOpen();
+                return buffer.inputStream();
+            }
+
+            @Override
+            public OutputStream getOutputStream() {
+                throw new UnsupportedOperationException("Rendered emails are read-only");
+            }
+
+            @Override
+            public String getContentType() {
+                return CONTENT_TYPE;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public String toString() {
+        checkOpen();
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            release.accept(buffer);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Rendered email " + name + " was already released");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.onboarding.notification.template;
+
+// Placeholders are bound to model fields when a template is compiled, so a typo fails the load rather than a send
+enum Slot {
+    CUSTOMER_NAME("customerName"),
+    CUSTOMER_ID("customerId"),
+    ACCOUNT_ID("accountId"),
+    STATUS("status"),
+    ACCOUNT_TYPE("accountType");
+
+    private final String placeholder;
+
+    Slot(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    // A switch rather than a Function per slot: the render loop calls this for every slot, and five lambdas
+    // at one call site would stop it from being inlined
+    String value(EmailModel model) {
+        return switch (this) {
+            case CUSTOMER_NAME -> model.customerName();
+            case CUSTOMER_ID -> model.customerId();
+            case ACCOUNT_ID -> model.accountId();
+            case STATUS -> model.status();
+            case ACCOUNT_TYPE -> model.accountType();
+        };
+    }
+
+    static Slot forPlaceholder(String placeholder) {
+        for (Slot slot : values()) {
+            if (slot.placeholder.equals(placeholder)) {
+                return slot;
+            }
+        }
+        return null;
+    }
+}
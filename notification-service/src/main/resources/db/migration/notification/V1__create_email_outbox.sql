@@ -0,0 +1,24 @@
+-- Emails accepted from the queues but not yet delivered. The listeners only insert here; EmailDispatcher claims
+-- due rows, sends them and records the outcome.
+CREATE TABLE email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    request_id VARCHAR(255) NOT NULL,
+    email_type VARCHAR(32) NOT NULL,
+    recipient VARCHAR(320) NOT NULL,
+    recipient_domain VARCHAR(255) NOT NULL,
+    customer_name VARCHAR(255),
+    customer_id VARCHAR(255),
+    account_id VARCHAR(255),
+    account_status VARCHAR(32),
+    account_type VARCHAR(32),
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT now(),
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    sent_at TIMESTAMP
+);
+
+-- SENDING rows are included: a row whose sender died is claimable again once its lease (next_attempt_at) runs out
+CREATE INDEX idx_email_outbox_due ON email_outbox (next_attempt_at) WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX idx_email_outbox_request_id ON email_outbox (request_id);
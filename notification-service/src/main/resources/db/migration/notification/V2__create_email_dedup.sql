@@ -0,0 +1,15 @@
+-- One row per (request, email type) ever queued. The primary key is what stops a redelivered event from
+-- queueing the same email twice, across restarts and across instances.
+CREATE TABLE email_dedup (
+    request_id VARCHAR(255) NOT NULL,
+    email_type VARCHAR(32) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (request_id, email_type)
+);
+
+CREATE INDEX idx_email_dedup_created_at ON email_dedup (created_at);
+
+-- Emails already queued before this table existed count as seen
+INSERT INTO email_dedup (request_id, email_type, created_at)
+SELECT request_id, email_type, min(created_at) FROM email_outbox GROUP BY request_id, email_type
+ON CONFLICT DO NOTHING;
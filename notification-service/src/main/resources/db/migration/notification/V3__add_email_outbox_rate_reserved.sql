@@ -0,0 +1,2 @@
+-- Set when a rate-limited email is deferred to a send slot reserved for it, so it is not rate-limited again
+ALTER TABLE email_outbox ADD COLUMN rate_reserved BOOLEAN NOT NULL DEFAULT false;
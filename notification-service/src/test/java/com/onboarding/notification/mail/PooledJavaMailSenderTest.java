@@ -0,0 +1,142 @@
+package com.onboarding.notification.mail;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.onboarding.notification.config.SmtpPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledJavaMailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("onboarding", "secret"))
+            .withPerMethodLifecycle(true);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testSendsManyMessagesOverOneConnection() {
+        PooledJavaMailSender sender = sender(new SmtpPoolProperties(), "secret");
+
+        for (int i = 0; i < 5; i++) {
+            sender.send(message(i));
+        }
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(1, opened());
+        assertEquals(1, sender.pool().idleConnections());
+        sender.destroy();
+    }
+
+    @Test
+    void testReplacesConnectionAfterMessageLimit() {
+        SmtpPoolProperties properties = new SmtpPoolProperties();
+        properties.setMaxMessagesPerConnection(2);
+        PooledJavaMailSender sender = sender(properties, "secret");
+
+        for (int i = 0; i < 5; i++) {
+            sender.send(message(i));
+        }
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(3, opened());
+        sender.destroy();
+    }
+
+    @Test
+    void testConcurrentSendsStayWithinConnectionCap() throws Exception {
+        SmtpPoolProperties properties = new SmtpPoolProperties();
+        properties.setMaxConnections(2);
+        PooledJavaMailSender sender = sender(properties, "secret");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int n = i;
+            sends.add(CompletableFuture.runAsync(() -> sender.send(message(n)), executor));
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get();
+        executor.shutdown();
+
+        assertEquals(40, greenMail.getReceivedMessages().length);
+        assertTrue(opened() <= 2, "opened " + opened());
+        sender.destroy();
+    }
+
+    @Test
+    void testReconnectsWhenPooledConnectionWasDropped() {
+        SmtpPoolProperties properties = new SmtpPoolProperties();
+        // Always validate, so the dropped connection is noticed on borrow
+        properties.setValidateAfterIdle(Duration.ZERO);
+        PooledJavaMailSender sender = sender(properties, "secret");
+        sender.send(message(0));
+
+        greenMail.reset();
+        greenMail.setUser("onboarding", "secret");
+        sender.send(message(1));
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(2, opened());
+        sender.destroy();
+    }
+
+    @Test
+    void testEvictsIdleConnections() {
+        SmtpPoolProperties properties = new SmtpPoolProperties();
+        properties.setIdleTimeout(Duration.ZERO);
+        PooledJavaMailSender sender = sender(properties, "secret");
+        sender.send(message(0));
+
+        sender.evictIdleConnections();
+
+        assertEquals(0, sender.pool().idleConnections());
+        sender.destroy();
+    }
+
+    @Test
+    void testBadCredentialsFailAsAuthenticationError() {
+        PooledJavaMailSender sender = sender(new SmtpPoolProperties(), "wrong");
+
+        assertThrows(MailAuthenticationException.class, () -> sender.send(message(0)));
+    }
+
+    private PooledJavaMailSender sender(SmtpPoolProperties properties, String password) {
+        PooledJavaMailSender sender = new PooledJavaMailSender("localhost", properties, meterRegistry);
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        sender.setUsername("onboarding");
+        sender.setPassword(password);
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.put("mail.smtp.auth", "true");
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+
+    private double opened() {
+        return meterRegistry.get("onboarding.smtp.connections.opened").counter().count();
+    }
+
+    private static SimpleMailMessage message(int n) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@example.com");
+        message.setTo("customer" + n + "@example.com");
+        message.setSubject("Message " + n);
+        message.setText("Hello " + n);
+        return message;
+    }
+}
@@ -0,0 +1,64 @@
+package com.onboarding.notification.service;
+
+import com.onboarding.notification.config.EmailDeliveryProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainRateLimiterTest {
+
+    @Test
+    void testEachDomainHasItsOwnBucket() {
+        EmailDeliveryProperties properties = new EmailDeliveryProperties();
+        properties.getRateLimit().setPerSecond(2);
+        properties.getRateLimit().setBurst(2);
+        EmailDeliveryProperties.DomainLimit gmail = new EmailDeliveryProperties.DomainLimit();
+        gmail.setPerSecond(10);
+        gmail.setBurst(5);
+        properties.getRateLimit().getDomains().put("gmail.com", gmail);
+        AtomicLong now = new AtomicLong();
+        DomainRateLimiter limiter = new DomainRateLimiter(properties, now::get);
+
+        assertTrue(limiter.reserve("example.com").isZero());
+        assertTrue(limiter.reserve("example.com").isZero());
+        assertEquals(Duration.ofMillis(500), limiter.reserve("example.com"));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.reserve("gmail.com").isZero());
+        }
+        assertEquals(Duration.ofMillis(100), limiter.reserve("gmail.com"));
+
+        // Both slots handed out above (500ms and 100ms) have come round; the next ones are after them
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertEquals(Duration.ofMillis(500), limiter.reserve("example.com"));
+        assertTrue(limiter.reserve("gmail.com").isZero());
+    }
+
+    @Test
+    void testBacklogGetsOneSlotPerEmailAndIdleBucketIsKeptUntilItsDebtIsPaid() {
+        EmailDeliveryProperties properties = new EmailDeliveryProperties();
+        properties.getRateLimit().setPerSecond(10);
+        properties.getRateLimit().setBurst(2);
+        AtomicLong now = new AtomicLong();
+        DomainRateLimiter limiter = new DomainRateLimiter(properties, now::get);
+
+        List<Duration> slots = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            slots.add(limiter.reserve("gmail.com"));
+        }
+
+        assertEquals(Duration.ZERO, slots.get(1));
+        assertEquals(Duration.ofMillis(100), slots.get(2));
+        assertEquals(Duration.ofMillis(200), slots.get(3));
+        assertEquals(Duration.ofMillis(999_800), slots.get(9_999));
+
+        // Idle for ten minutes, but most of the handed-out slots are still ahead
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        limiter.evictIdle();
+        assertEquals(Duration.ofMillis(339_900), limiter.reserve("gmail.com"));
+    }
+}
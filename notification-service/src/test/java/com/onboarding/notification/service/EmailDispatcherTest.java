@@ -0,0 +1,346 @@
+package com.onboarding.notification.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.onboarding.events.ErrorTriggerProperties;
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.fault.FaultInjectionProperties;
+import com.onboarding.events.fault.FaultInjector;
+import com.onboarding.events.outbox.OutboxRepository;
+import com.onboarding.events.outbox.OutboxWriter;
+import com.onboarding.events.trigger.ErrorTriggerMatchers;
+import com.onboarding.notification.config.DedupProperties;
+import com.onboarding.notification.config.EmailDeliveryProperties;
+import com.onboarding.notification.config.EmailProperties;
+import com.onboarding.notification.config.EmailTemplateProperties;
+import com.onboarding.notification.config.RabbitMQConfig;
+import com.onboarding.notification.config.SmtpPoolProperties;
+import com.onboarding.notification.mail.PooledJavaMailSender;
+import com.onboarding.notification.repository.EmailDedupRepository;
+import com.onboarding.notification.repository.EmailOutboxRepository;
+import com.onboarding.notification.template.EmailTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Listener side (enqueue) and sender side (dispatch) against a real Postgres and an in-process SMTP server
+class EmailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("onboarding", "secret"))
+            .withPerMethodLifecycle(true);
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final EmailDeliveryProperties properties = new EmailDeliveryProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PooledJavaMailSender mailSender;
+    private NotificationService notificationService;
+    private EmailDispatcher dispatcher;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/notification", "classpath:db/migration/outbox")
+                .table("flyway_schema_history_notification")
+                .load()
+                .migrate();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("TRUNCATE email_outbox, email_dedup, outbox_events");
+        properties.setInitialBackoff(Duration.ofMinutes(1));
+        mailSender = new PooledJavaMailSender("localhost", new SmtpPoolProperties(), meterRegistry);
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailSender.setUsername("onboarding");
+        mailSender.setPassword("secret");
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.put("mail.smtp.auth", "true");
+        mailSender.setJavaMailProperties(javaMailProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.destroy();
+        mailSender.destroy();
+    }
+
+    @Test
+    void testQueuedEmailsAreSentAndAccountEmailReportsDelivery() {
+        properties.setCoalesceWindow(Duration.ZERO);
+        start();
+
+        notificationService.enqueue("REQ-1", null, details("jane@example.com"), EmailType.KYC_INITIATED);
+        notificationService.enqueue("REQ-1", "ACC-1", details("jane@example.com"), EmailType.ACCOUNT_CREATED);
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 2);
+
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(List.of(EventRoutingKeys.NOTIFICATION_SENT),
+                jdbcTemplate.queryForList("SELECT routing_key FROM outbox_events", String.class));
+    }
+
+    @Test
+    void testFailedSendIsRetriedLaterThenReportedAsFailure() {
+        properties.setMaxAttempts(2);
+        start();
+        greenMail.stop();
+        notificationService.enqueue("REQ-2", "ACC-2", details("joe@example.com"), EmailType.ACCOUNT_CREATED);
+
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'PENDING' AND attempts = 1") == 1);
+        assertEquals(1, count("SELECT count(*) FROM email_outbox WHERE next_attempt_at > now()"));
+
+        // Make it due again instead of waiting out the backoff
+        jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = now()");
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'FAILED'") == 1);
+
+        assertEquals(List.of(EventRoutingKeys.NOTIFICATION_FAILED),
+                jdbcTemplate.queryForList("SELECT routing_key FROM outbox_events", String.class));
+    }
+
+    @Test
+    void testDomainOverItsRateIsDeferredWithoutCountingAnAttempt() {
+        properties.getRateLimit().setBurst(1);
+        properties.getRateLimit().setPerSecond(0.1);
+        start();
+        for (int i = 0; i < 3; i++) {
+            notificationService.enqueue("REQ-" + i, null, details("user" + i + "@gmail.com"), EmailType.KYC_SUCCESSFUL);
+        }
+        notificationService.enqueue("REQ-OTHER", null, details("user@example.org"), EmailType.KYC_SUCCESSFUL);
+
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 2);
+
+        assertEquals(2, count("SELECT count(*) FROM email_outbox WHERE status = 'PENDING' AND attempts = 0 " +
+                "AND recipient_domain = 'gmail.com' AND next_attempt_at > now()"));
+    }
+
+    @Test
+    void testBacklogOverTheBurstIsDeferredOnceToOneSlotPerEmail() {
+        properties.getRateLimit().setBurst(2);
+        properties.getRateLimit().setPerSecond(5);
+        start();
+        for (int i = 0; i < 10; i++) {
+            notificationService.enqueue("REQ-" + i, null, details("user" + i + "@gmail.com"), EmailType.KYC_SUCCESSFUL);
+        }
+
+        dispatcher.dispatch();
+        assertEquals(8, deferred());
+        // Already holding their slots, so polling again moves none of them
+        dispatcher.dispatch();
+        assertEquals(8, deferred());
+
+        await(() -> {
+            dispatcher.dispatch();
+            return count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 10;
+        });
+        assertEquals(10, greenMail.getReceivedMessages().length);
+        assertEquals(8, deferred());
+        // Eight slots 200ms apart
+        assertTrue(jdbcTemplate.queryForObject("SELECT extract(epoch FROM max(sent_at) - min(sent_at)) FROM email_outbox",
+                Double.class) >= 1.4);
+    }
+
+    @Test
+    void testKycSuccessfulWithinTheWindowReplacesHeldKycInitiated() {
+        properties.setCoalesceWindow(Duration.ofMinutes(1));
+        start();
+
+        notificationService.enqueue("REQ-3", null, details("ann@example.com"), EmailType.KYC_INITIATED);
+        dispatcher.dispatch();
+        notificationService.enqueue("REQ-3", null, details("ann@example.com"), EmailType.KYC_SUCCESSFUL);
+        // Arriving out of order: KYC_INITIATED after KYC_SUCCESSFUL is not queued at all
+        notificationService.enqueue("REQ-4", null, details("bob@example.com"), EmailType.KYC_SUCCESSFUL);
+        notificationService.enqueue("REQ-4", null, details("bob@example.com"), EmailType.KYC_INITIATED);
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 2);
+
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(List.of("KYC_SUCCESSFUL", "KYC_SUCCESSFUL"), jdbcTemplate.queryForList(
+                "SELECT email_type FROM email_outbox WHERE status = 'SENT'", String.class));
+        assertEquals(1, count("SELECT count(*) FROM email_outbox WHERE status = 'SUPERSEDED'"));
+        assertEquals(2, meterRegistry.get("onboarding.email.coalesced").counter().count());
+    }
+
+    @Test
+    void testHeldKycInitiatedIsSentOnceTheWindowPasses() {
+        properties.setCoalesceWindow(Duration.ofMillis(300));
+        start();
+
+        notificationService.enqueue("REQ-5", null, details("cy@example.com"), EmailType.KYC_INITIATED);
+        dispatcher.dispatch();
+        assertEquals(0, count("SELECT count(*) FROM email_outbox WHERE status <> 'PENDING'"));
+
+        await(() -> {
+            dispatcher.dispatch();
+            return count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 1;
+        });
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void testRedeliveredEventQueuesItsEmailOnlyOnce() throws Exception {
+        start();
+
+        notificationService.enqueue("REQ-6", "ACC-6", details("dee@example.com"), EmailType.ACCOUNT_CREATED);
+        notificationService.enqueue("REQ-6", "ACC-6", details("dee@example.com"), EmailType.ACCOUNT_CREATED);
+        // A restarted instance has nothing in memory, so the database has to catch it
+        dispatcher.destroy();
+        start();
+        notificationService.enqueue("REQ-6", "ACC-6", details("dee@example.com"), EmailType.ACCOUNT_CREATED);
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 1);
+
+        assertEquals(1, count("SELECT count(*) FROM email_outbox"));
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(1, meterRegistry.get("onboarding.email.duplicates.suppressed").tag("tier", "memory").counter().count());
+        assertEquals(1, meterRegistry.get("onboarding.email.duplicates.suppressed").tag("tier", "database").counter().count());
+    }
+
+    @Test
+    void testFailureToRecordASentEmailIsRetriedWithoutSendingAgain() {
+        AtomicInteger markSentFailures = new AtomicInteger(1);
+        start(failingMarkSent(markSentFailures));
+        notificationService.enqueue("REQ-7", "ACC-7", details("eve@example.com"), EmailType.ACCOUNT_CREATED);
+
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 1);
+
+        assertEquals(0, markSentFailures.get());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(List.of(EventRoutingKeys.NOTIFICATION_SENT),
+                jdbcTemplate.queryForList("SELECT routing_key FROM outbox_events", String.class));
+    }
+
+    @Test
+    void testSentEmailLeftUnrecordedIsRecordedAfterItsLeaseWithoutSendingAgain() {
+        AtomicInteger markSentFailures = new AtomicInteger(3);
+        start(failingMarkSent(markSentFailures));
+        notificationService.enqueue("REQ-8", "ACC-8", details("fay@example.com"), EmailType.ACCOUNT_CREATED);
+
+        dispatcher.dispatch();
+        await(() -> markSentFailures.get() == 0);
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'SENDING' AND sent_at IS NOT NULL") == 1);
+        assertEquals(0, count("SELECT count(*) FROM outbox_events"));
+
+        // Let the lease run out
+        jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = now()");
+        dispatcher.dispatch();
+        await(() -> count("SELECT count(*) FROM email_outbox WHERE status = 'SENT'") == 1);
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(List.of(EventRoutingKeys.NOTIFICATION_SENT),
+                jdbcTemplate.queryForList("SELECT routing_key FROM outbox_events", String.class));
+        assertEquals(1, meterRegistry.get("onboarding.email.deliveries").tag("result", "sent").counter().count());
+    }
+
+    @Test
+    void testBackoffGrowsExponentiallyUpToTheCap() {
+        properties.setInitialBackoff(Duration.ofSeconds(4));
+        properties.setMaxBackoff(Duration.ofSeconds(60));
+        start();
+
+        for (int attempt = 1; attempt <= 40; attempt++) {
+            long expected = Math.min(60_000, 4_000L << Math.min(attempt - 1, 20));
+            long delay = dispatcher.backoff(attempt).toMillis();
+            assertTrue(delay >= expected / 2 && delay <= expected, attempt + ": " + delay);
+        }
+    }
+
+    private void start() {
+        start(new EmailOutboxRepository(new NamedParameterJdbcTemplate(dataSource)));
+    }
+
+    private void start(EmailOutboxRepository repository) {
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        notificationService = new NotificationService(mailSender, new EmailProperties(),
+                new ErrorTriggerService(new ErrorTriggerMatchers(new ErrorTriggerProperties())),
+                new FaultInjector(new FaultInjectionProperties(), meterRegistry),
+                new EmailTemplates(new DefaultResourceLoader(), new EmailTemplateProperties()), repository,
+                properties, new NotificationDedupStore(new EmailDedupRepository(namedJdbcTemplate), new DedupProperties(),
+                meterRegistry), meterRegistry);
+        dispatcher = new EmailDispatcher(repository, notificationService, new DomainRateLimiter(properties),
+                new OutboxWriter(new OutboxRepository(namedJdbcTemplate), new RabbitMQConfig().jsonMessageConverter()),
+                new DataSourceTransactionManager(dataSource), properties, meterRegistry);
+    }
+
+    // markSent throws until the given number of failures is used up
+    private static EmailOutboxRepository failingMarkSent(AtomicInteger failures) {
+        return new EmailOutboxRepository(new NamedParameterJdbcTemplate(dataSource)) {
+            @Override
+            public void markSent(long id) {
+                if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                    throw new DataAccessResourceFailureException("Connection lost");
+                }
+                super.markSent(id);
+            }
+        };
+    }
+
+    private static Map<String, Object> details(String email) {
+        return Map.of("customerEmail", email, "customerName", "Jane", "customerId", "CUST-1");
+    }
+
+    private double deferred() {
+        return meterRegistry.get("onboarding.email.deliveries").tag("result", "deferred").counter().count();
+    }
+
+    private static int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 10s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.onboarding.notification.template;
+
+import com.onboarding.notification.config.EmailTemplateProperties;
+import com.onboarding.notification.service.EmailType;
+import jakarta.activation.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplatesTest {
+
+    private static final EmailModel MODEL = new EmailModel("Zoë <b>O'Brien</b> & \"Co\" 😀",
+            "CUST-123", "ACC-00003-NQK8N-1", "ACTIVE", "STANDARD");
+
+    @Test
+    void testRendersEveryTypeWithEscapedValues() {
+        EmailTemplates templates = new EmailTemplates(new DefaultResourceLoader(), new EmailTemplateProperties());
+
+        for (EmailType emailType : EmailType.values()) {
+            String html = render(templates, emailType, MODEL);
+
+            assertTrue(html.contains("Dear Zoë &lt;b&gt;O&#39;Brien&lt;/b&gt; &amp; &quot;Co&quot; 😀,"), emailType.name());
+            assertTrue(html.contains("CUST-123"), emailType.name());
+            assertFalse(html.contains("${"), emailType.name());
+        }
+        assertTrue(render(templates, EmailType.ACCOUNT_CREATED, MODEL)
+                .contains("Account ID: ACC-00003-NQK8N-1"));
+    }
+
+    @Test
+    void testUnknownPlaceholderFailsCompilation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledTemplate.compile("broken.html", "<p>Dear ${customerNmae}</p>"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledTemplate.compile("broken.html", "<p>Dear ${customerName</p>"));
+    }
+
+    @Test
+    void testHotReloadPicksUpEditsAndKeepsLastGoodSet(@TempDir Path directory) throws Exception {
+        for (EmailType emailType : EmailType.values()) {
+            Files.writeString(file(directory, emailType), "<p>Hello ${customerName}</p>");
+        }
+        EmailTemplateProperties properties = new EmailTemplateProperties();
+        properties.setLocation(directory.toUri().toString());
+        properties.setHotReload(true);
+        EmailTemplates templates = new EmailTemplates(new DefaultResourceLoader(), properties);
+        EmailModel model = new EmailModel("Ann", "CUST-1", null, null, null);
+
+        Path kycInitiated = file(directory, EmailType.KYC_INITIATED);
+        Files.writeString(kycInitiated, "<p>Welcome ${customerName}</p>");
+        touch(kycInitiated, 10_000);
+        templates.reloadIfChanged();
+        assertEquals("<p>Welcome Ann</p>", render(templates, EmailType.KYC_INITIATED, model));
+
+        Files.writeString(kycInitiated, "<p>Welcome ${nope}</p>");
+        touch(kycInitiated, 20_000);
+        templates.reloadIfChanged();
+        assertEquals("<p>Welcome Ann</p>", render(templates, EmailType.KYC_INITIATED, model));
+    }
+
+    @Test
+    void testRenderedBodyReadsAsUtf8AndIsReleasedOnClose() throws Exception {
+        EmailTemplates templates = new EmailTemplates(new DefaultResourceLoader(), new EmailTemplateProperties());
+
+        RenderedEmail body = templates.render(EmailType.KYC_SUCCESSFUL, MODEL);
+        DataSource dataSource = body.dataSource();
+        byte[] bytes = dataSource.getInputStream().readAllBytes();
+        body.close();
+
+        assertEquals("text/html; charset=UTF-8", dataSource.getContentType());
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("Zoë"));
+        assertThrows(IllegalStateException.class, dataSource::getInputStream);
+    }
+
+    private static String render(EmailTemplates templates, EmailType emailType, EmailModel model) {
+        try (RenderedEmail body = templates.render(emailType, model)) {
+            return body.toString();
+        }
+    }
+
+    private static Path file(Path directory, EmailType emailType) {
+        return directory.resolve(emailType.name().toLowerCase().replace('_', '-') + ".html");
+    }
+
+    // Filesystem timestamps can be coarse, so move the edit visibly forward
+    private static void touch(Path file, long millis) throws Exception {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + millis));
+    }
+}
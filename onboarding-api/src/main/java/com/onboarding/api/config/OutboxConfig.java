@@ -0,0 +1,10 @@
+package com.onboarding.api.config;
+
+import com.onboarding.events.outbox.OutboxConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import(OutboxConfiguration.class)
+public class OutboxConfig {
+}
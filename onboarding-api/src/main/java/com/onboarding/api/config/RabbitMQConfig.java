@@ -30,6 +30,8 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter());
+        // Unroutable events are returned so the publisher can fail the confirm instead of dropping them
+        template.setMandatory(true);
         return template;
     }
 }
@@ -2,14 +2,19 @@ package com.onboarding.api.controller;
 
 import com.onboarding.api.dto.OnboardingRequest;
 import com.onboarding.api.dto.OnboardingResponse;
+import com.onboarding.api.service.BulkOnboardingService;
 import com.onboarding.api.service.OnboardingService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/onboarding")
@@ -17,23 +22,35 @@ public class OnboardingController {
     private static final Logger logger = LoggerFactory.getLogger(OnboardingController.class);
 
     private final OnboardingService onboardingService;
+    private final BulkOnboardingService bulkOnboardingService;
 
-    public OnboardingController(OnboardingService onboardingService) {
+    public OnboardingController(OnboardingService onboardingService, BulkOnboardingService bulkOnboardingService) {
         this.onboardingService = onboardingService;
+        this.bulkOnboardingService = bulkOnboardingService;
     }
 
     @PostMapping("/request")
-    public ResponseEntity<OnboardingResponse> requestOnboarding(@Valid @RequestBody OnboardingRequest request) {
+    public CompletableFuture<ResponseEntity<OnboardingResponse>> requestOnboarding(@Valid @RequestBody OnboardingRequest request) {
         logger.info("Received onboarding request for customer: {}", request.getCustomerId());
 
-        String requestId = onboardingService.initiateOnboarding(request);
+        return onboardingService.initiateOnboarding(request)
+                .thenApply(requestId -> ResponseEntity.ok(new OnboardingResponse(
+                        requestId,
+                        "INITIATED",
+                        LocalDateTime.now()
+                )));
+    }
+
+    @PostMapping(value = "/requests:bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> requestOnboardingBulk(InputStream body) {
+        logger.info("Received bulk onboarding request");
 
-        OnboardingResponse response = new OnboardingResponse(
-                requestId,
-                "INITIATED",
-                LocalDateTime.now()
-        );
+        StreamingResponseBody stream = output -> bulkOnboardingService.ingest(body, output);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
     }
 }
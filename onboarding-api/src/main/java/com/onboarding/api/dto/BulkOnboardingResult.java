@@ -0,0 +1,71 @@
+package com.onboarding.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOnboardingResult {
+    private long line;
+    private String requestId;
+    private String status;
+    private String errorCode;
+    private String message;
+
+    public BulkOnboardingResult() {
+    }
+
+    public BulkOnboardingResult(long line, String requestId, String status, String errorCode, String message) {
+        this.line = line;
+        this.requestId = requestId;
+        this.status = status;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+
+    public static BulkOnboardingResult accepted(long line, String requestId) {
+        return new BulkOnboardingResult(line, requestId, "INITIATED", null, null);
+    }
+
+    public static BulkOnboardingResult rejected(long line, String requestId, String errorCode, String message) {
+        return new BulkOnboardingResult(line, requestId, "REJECTED", errorCode, message);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.onboarding.api.exception;
+
+public class EventPublishException extends RuntimeException {
+    private final String errorCode;
+
+    public EventPublishException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    public EventPublishException(String errorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,203 @@
+package com.onboarding.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.onboarding.api.config.BulkIngestionProperties;
+import com.onboarding.api.dto.BulkOnboardingResult;
+import com.onboarding.api.dto.OnboardingRequest;
+import com.onboarding.api.exception.BusinessRuleException;
+import com.onboarding.events.BaseEvent;
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.outbox.OutboundEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+@Service
+public class BulkOnboardingService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkOnboardingService.class);
+
+    private final OnboardingEventPublisher eventPublisher;
+    private final OnboardingValidationService validationService;
+    private final Validator validator;
+    private final BulkIngestionProperties properties;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+
+    public BulkOnboardingService(OnboardingEventPublisher eventPublisher,
+                                 OnboardingValidationService validationService,
+                                 Validator validator,
+                                 BulkIngestionProperties properties,
+                                 ObjectMapper objectMapper) {
+        this.eventPublisher = eventPublisher;
+        this.validationService = validationService;
+        this.validator = validator;
+        this.properties = properties;
+        this.requestReader = objectMapper.readerFor(OnboardingRequest.class);
+        this.resultWriter = objectMapper.writerFor(BulkOnboardingResult.class);
+    }
+
+    public void ingest(InputStream input, OutputStream output) throws IOException {
+        // One result line per non-blank input line, flushed once its batch has been published
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<PendingLine> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        long processed = 0;
+        long accepted = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            batch.add(processLine(lineNumber, line));
+            if (batch.size() >= batchSize) {
+                processed += batch.size();
+                accepted += flush(batch, output);
+                batch.clear();
+            }
+        }
+        processed += batch.size();
+        accepted += flush(batch, output);
+
+        logger.info("Bulk onboarding ingestion finished: {} lines read, {} initiated, {} rejected",
+                lineNumber, accepted, processed - accepted);
+    }
+
+    private PendingLine processLine(long lineNumber, String line) {
+        OnboardingRequest request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return new PendingLine(BulkOnboardingResult.rejected(lineNumber, null, "MALFORMED_JSON", e.getOriginalMessage()));
+        }
+
+        Set<ConstraintViolation<OnboardingRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return new PendingLine(BulkOnboardingResult.rejected(lineNumber, null, "VALIDATION_ERROR", message));
+        }
+
+        String requestId = UUID.randomUUID().toString();
+        try {
+            validationService.validateBusinessRules(request);
+        } catch (BusinessRuleException e) {
+            logger.warn("Business rule violation for requestId: {} (line {}) - {}", requestId, lineNumber, e.getMessage());
+            return new PendingLine(
+                    BulkOnboardingResult.rejected(lineNumber, requestId,
+                            e.getErrorCode() != null ? e.getErrorCode() : "BUSINESS_RULE_VIOLATION", e.getMessage()),
+                    EventRoutingKeys.ONBOARDING_FAILED,
+                    OnboardingService.toValidationFailedEvent(requestId, e)
+            );
+        }
+
+        return new PendingLine(
+                BulkOnboardingResult.accepted(lineNumber, requestId),
+                EventRoutingKeys.ONBOARDING_REQUESTED,
+                OnboardingService.toRequestedEvent(requestId, request)
+        );
+    }
+
+    private long flush(List<PendingLine> batch, OutputStream output) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        publish(batch);
+
+        long accepted = 0;
+        for (PendingLine pending : batch) {
+            if ("INITIATED".equals(pending.result.getStatus())) {
+                accepted++;
+            }
+            output.write(resultWriter.writeValueAsBytes(pending.result));
+            output.write('\n');
+        }
+        output.flush();
+        return accepted;
+    }
+
+    private void publish(List<PendingLine> batch) {
+        List<PendingLine> publishable = new ArrayList<>(batch.size());
+        List<OutboundEvent> events = new ArrayList<>(batch.size());
+        for (PendingLine pending : batch) {
+            if (pending.event != null) {
+                publishable.add(pending);
+                events.add(new OutboundEvent(pending.routingKey, pending.event));
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Void>> confirms;
+        try {
+            confirms = eventPublisher.publishBatch(events);
+        } catch (AmqpException e) {
+            logger.error("Failed to publish bulk onboarding batch of {} lines", batch.size(), e);
+            publishable.forEach(PendingLine::markPublishFailed);
+            return;
+        }
+
+        // Results are only reported once the whole batch has been durably accepted
+        for (int i = 0; i < confirms.size(); i++) {
+            try {
+                confirms.get(i).join();
+            } catch (CompletionException e) {
+                publishable.get(i).markPublishFailed();
+            }
+        }
+        logger.debug("Published bulk onboarding batch of {} lines", batch.size());
+    }
+
+    private static final class PendingLine {
+        private BulkOnboardingResult result;
+        private final String routingKey;
+        private final BaseEvent event;
+
+        private PendingLine(BulkOnboardingResult result) {
+            this(result, null, null);
+        }
+
+        private PendingLine(BulkOnboardingResult result, String routingKey, BaseEvent event) {
+            this.result = result;
+            this.routingKey = routingKey;
+            this.event = event;
+        }
+
+        private void markPublishFailed() {
+            if (!"INITIATED".equals(result.getStatus())) {
+                // Resubmitting cannot help a rejected line, so it keeps its own error; only its failure event is lost
+                logger.warn("Could not publish {} for rejected requestId: {} (line {}, {})",
+                        routingKey, result.getRequestId(), result.getLine(), result.getErrorCode());
+                return;
+            }
+            result = BulkOnboardingResult.rejected(result.getLine(), result.getRequestId(),
+                    "PUBLISH_FAILED", "Request could not be published, please resubmit");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.onboarding.api.service;
+
+import com.onboarding.api.config.PublisherProperties;
+import com.onboarding.api.config.RabbitMQConfig;
+import com.onboarding.api.exception.EventPublishException;
+import com.onboarding.events.BaseEvent;
+import com.onboarding.events.outbox.OutboundEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(prefix = "onboarding.outbox", name = "enabled", havingValue = "false")
+public class ConfirmingEventPublisher implements OnboardingEventPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(ConfirmingEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final PublisherProperties properties;
+    private final Semaphore inFlight;
+    private final MeterRegistry meterRegistry;
+    private final Counter nackCounter;
+    private final Counter rejectedCounter;
+
+    public ConfirmingEventPublisher(RabbitTemplate rabbitTemplate, PublisherProperties properties, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.properties = properties;
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+        this.meterRegistry = meterRegistry;
+        this.nackCounter = Counter.builder("onboarding.publisher.nacks")
+                .description("Publishes negatively acknowledged by the broker")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("onboarding.publisher.rejected")
+                .description("Publishes rejected because the in-flight window was full")
+                .register(meterRegistry);
+        Gauge.builder("onboarding.publisher.in-flight", inFlight,
+                        semaphore -> properties.getMaxInFlight() - semaphore.availablePermits())
+                .description("Publishes awaiting a broker confirm")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(String routingKey, BaseEvent event) {
+        return send(rabbitTemplate, routingKey, event);
+    }
+
+    @Override
+    public List<CompletableFuture<Void>> publishBatch(List<OutboundEvent> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        // invoke() binds one channel to the calling thread for the whole batch
+        return rabbitTemplate.invoke(operations -> {
+            List<CompletableFuture<Void>> confirms = new ArrayList<>(events.size());
+            for (OutboundEvent outbound : events) {
+                confirms.add(send(operations, outbound.getRoutingKey(), outbound.getEvent()));
+            }
+            return confirms;
+        });
+    }
+
+    private CompletableFuture<Void> send(RabbitOperations operations, String routingKey, BaseEvent event) {
+        if (!acquire()) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new EventPublishException("PUBLISH_BACKPRESSURE",
+                    "Too many events awaiting broker confirmation, please retry"));
+        }
+
+        CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            operations.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, routingKey, event, correlationData);
+        } catch (AmqpException e) {
+            inFlight.release();
+            sample.stop(confirmTimer("error"));
+            logger.error("Failed to publish {} for requestId: {}", routingKey, event.getRequestId(), e);
+            return CompletableFuture.failedFuture(new EventPublishException("PUBLISH_FAILED",
+                    "Event could not be published", e));
+        }
+
+        return correlationData.getFuture()
+                .orTimeout(properties.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((confirm, ex) -> {
+                    inFlight.release();
+                    if (ex != null) {
+                        sample.stop(confirmTimer("timeout"));
+                        logger.warn("No broker confirm for {} requestId: {} within {}",
+                                routingKey, event.getRequestId(), properties.getConfirmTimeout());
+                        throw new EventPublishException("PUBLISH_CONFIRM_TIMEOUT",
+                                "Broker did not confirm the event in time", ex);
+                    }
+                    if (correlationData.getReturned() != null) {
+                        sample.stop(confirmTimer("returned"));
+                        logger.warn("Event {} for requestId: {} was unroutable: {}",
+                                routingKey, event.getRequestId(), correlationData.getReturned().getReplyText());
+                        throw new EventPublishException("PUBLISH_UNROUTABLE", "Event could not be routed to any queue");
+                    }
+                    if (!confirm.isAck()) {
+                        sample.stop(confirmTimer("nack"));
+                        nackCounter.increment();
+                        logger.warn("Broker nacked {} for requestId: {}: {}",
+                                routingKey, event.getRequestId(), confirm.getReason());
+                        throw new EventPublishException("PUBLISH_NACKED", "Broker rejected the event");
+                    }
+                    sample.stop(confirmTimer("ack"));
+                    return null;
+                });
+    }
+
+    private boolean acquire() {
+        try {
+            return inFlight.tryAcquire(properties.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Timer confirmTimer(String outcome) {
+        return Timer.builder("onboarding.publisher.confirm.latency")
+                .description("Time from publish to broker confirm")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
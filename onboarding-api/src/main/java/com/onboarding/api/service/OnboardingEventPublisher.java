@@ -0,0 +1,15 @@
+package com.onboarding.api.service;
+
+import com.onboarding.events.BaseEvent;
+import com.onboarding.events.outbox.OutboundEvent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface OnboardingEventPublisher {
+
+    // Completes once the event is durably accepted, either confirmed by the broker or committed to the outbox
+    CompletableFuture<Void> publish(String routingKey, BaseEvent event);
+
+    List<CompletableFuture<Void>> publishBatch(List<OutboundEvent> events);
+}
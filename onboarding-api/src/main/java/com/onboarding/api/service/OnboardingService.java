@@ -1,32 +1,32 @@
 package com.onboarding.api.service;
 
-import com.onboarding.api.config.RabbitMQConfig;
 import com.onboarding.api.dto.OnboardingRequest;
+import com.onboarding.api.exception.BusinessRuleException;
 import com.onboarding.events.EventRoutingKeys;
 import com.onboarding.events.OnboardingFailedEvent;
 import com.onboarding.events.OnboardingRequestedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class OnboardingService {
     private static final Logger logger = LoggerFactory.getLogger(OnboardingService.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OnboardingEventPublisher eventPublisher;
     private final OnboardingValidationService validationService;
 
-    public OnboardingService(RabbitTemplate rabbitTemplate, OnboardingValidationService validationService) {
-        this.rabbitTemplate = rabbitTemplate;
+    public OnboardingService(OnboardingEventPublisher eventPublisher, OnboardingValidationService validationService) {
+        this.eventPublisher = eventPublisher;
         this.validationService = validationService;
     }
 
-    public String initiateOnboarding(OnboardingRequest request) {
+    public CompletableFuture<String> initiateOnboarding(OnboardingRequest request) {
         String requestId = UUID.randomUUID().toString();
         logger.info("Initiating onboarding request with ID: {}", requestId);
 
@@ -34,38 +34,44 @@ public class OnboardingService {
             // Validate business rules
             validationService.validateBusinessRules(request);
 
-            Map<String, Object> customerData = new HashMap<>();
-            customerData.put("name", request.getName());
-            customerData.put("email", request.getEmail());
-            customerData.put("documentType", request.getDocumentType());
-            customerData.put("documentNumber", request.getDocumentNumber());
+            OnboardingRequestedEvent event = toRequestedEvent(requestId, request);
 
-            OnboardingRequestedEvent event = new OnboardingRequestedEvent(requestId, request.getCustomerId(), customerData);
-
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.EXCHANGE_NAME,
-                    EventRoutingKeys.ONBOARDING_REQUESTED,
-                    event
-            );
-
-            logger.info("Published OnboardingRequestedEvent for requestId: {}", requestId);
-            return requestId;
-        } catch (com.onboarding.api.exception.BusinessRuleException e) {
+            // Completes once the event is durably accepted, without waiting on the broker in the request thread
+            return eventPublisher.publish(EventRoutingKeys.ONBOARDING_REQUESTED, event)
+                    .thenApply(confirmed -> {
+                        logger.info("Published OnboardingRequestedEvent for requestId: {}", requestId);
+                        return requestId;
+                    });
+        } catch (BusinessRuleException e) {
             logger.warn("Business rule violation for requestId: {} - {}", requestId, e.getMessage());
             // Publish failure event for business rule violations
-            OnboardingFailedEvent failedEvent = new OnboardingFailedEvent(
-                    requestId,
-                    "VALIDATION",
-                    e.getErrorCode() != null ? e.getErrorCode() : "BUSINESS_RULE_VIOLATION",
-                    e.getMessage(),
-                    0
-            );
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.EXCHANGE_NAME,
-                    EventRoutingKeys.ONBOARDING_FAILED,
-                    failedEvent
-            );
+            eventPublisher.publish(EventRoutingKeys.ONBOARDING_FAILED, toValidationFailedEvent(requestId, e))
+                    .whenComplete((confirmed, ex) -> {
+                        if (ex != null) {
+                            logger.error("Failed to publish OnboardingFailedEvent for requestId: {}", requestId, ex);
+                        }
+                    });
             throw e; // Re-throw to return 400 to client
         }
     }
+
+    static OnboardingRequestedEvent toRequestedEvent(String requestId, OnboardingRequest request) {
+        Map<String, Object> customerData = new HashMap<>();
+        customerData.put("name", request.getName());
+        customerData.put("email", request.getEmail());
+        customerData.put("documentType", request.getDocumentType());
+        customerData.put("documentNumber", request.getDocumentNumber());
+
+        return new OnboardingRequestedEvent(requestId, request.getCustomerId(), customerData);
+    }
+
+    static OnboardingFailedEvent toValidationFailedEvent(String requestId, BusinessRuleException e) {
+        return new OnboardingFailedEvent(
+                requestId,
+                "VALIDATION",
+                e.getErrorCode() != null ? e.getErrorCode() : "BUSINESS_RULE_VIOLATION",
+                e.getMessage(),
+                0
+        );
+    }
 }
@@ -0,0 +1,55 @@
+package com.onboarding.api.service;
+
+import com.onboarding.api.config.RabbitMQConfig;
+import com.onboarding.api.exception.EventPublishException;
+import com.onboarding.events.BaseEvent;
+import com.onboarding.events.outbox.OutboundEvent;
+import com.onboarding.events.outbox.OutboxWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@ConditionalOnProperty(prefix = "onboarding.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxEventPublisher implements OnboardingEventPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxEventPublisher.class);
+
+    private final OutboxWriter outboxWriter;
+
+    public OutboxEventPublisher(OutboxWriter outboxWriter) {
+        this.outboxWriter = outboxWriter;
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(String routingKey, BaseEvent event) {
+        try {
+            outboxWriter.enqueue(RabbitMQConfig.EXCHANGE_NAME, routingKey, event);
+            return CompletableFuture.completedFuture(null);
+        } catch (DataAccessException e) {
+            logger.error("Failed to write {} to outbox for requestId: {}", routingKey, event.getRequestId(), e);
+            return CompletableFuture.failedFuture(new EventPublishException("OUTBOX_WRITE_FAILED",
+                    "Event could not be stored", e));
+        }
+    }
+
+    @Override
+    public List<CompletableFuture<Void>> publishBatch(List<OutboundEvent> events) {
+        CompletableFuture<Void> result;
+        try {
+            // One transaction and one JDBC batch for the whole list
+            outboxWriter.enqueueAll(RabbitMQConfig.EXCHANGE_NAME, events);
+            result = CompletableFuture.completedFuture(null);
+        } catch (DataAccessException e) {
+            logger.error("Failed to write batch of {} events to outbox", events.size(), e);
+            result = CompletableFuture.failedFuture(new EventPublishException("OUTBOX_WRITE_FAILED",
+                    "Events could not be stored", e));
+        }
+        return Collections.nCopies(events.size(), result);
+    }
+}
@@ -2,6 +2,8 @@ package com.onboarding.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.onboarding.api.dto.OnboardingRequest;
+import com.onboarding.api.exception.EventPublishException;
+import com.onboarding.api.service.BulkOnboardingService;
 import com.onboarding.api.service.OnboardingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,11 +11,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -26,6 +31,9 @@ class OnboardingControllerTest {
     @MockBean
     private OnboardingService onboardingService;
 
+    @MockBean
+    private BulkOnboardingService bulkOnboardingService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -39,16 +47,39 @@ class OnboardingControllerTest {
         request.setDocumentType("PASSPORT");
         request.setDocumentNumber("DOC123456");
 
-        when(onboardingService.initiateOnboarding(any(OnboardingRequest.class))).thenReturn(requestId);
+        when(onboardingService.initiateOnboarding(any(OnboardingRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(requestId));
 
-        mockMvc.perform(post("/api/onboarding/request")
+        MvcResult result = mockMvc.perform(post("/api/onboarding/request")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.requestId").value(requestId))
                 .andExpect(jsonPath("$.status").value("INITIATED"));
     }
 
+    @Test
+    void testRequestOnboardingWhenPublishNotConfirmed() throws Exception {
+        OnboardingRequest request = new OnboardingRequest("CUST-123", "Test User", "test@example.com", "PASSPORT", "DOC123456");
+
+        when(onboardingService.initiateOnboarding(any(OnboardingRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new EventPublishException("PUBLISH_NACKED", "Broker rejected the event")));
+
+        MvcResult result = mockMvc.perform(post("/api/onboarding/request")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errorCode").value("PUBLISH_NACKED"));
+    }
+
     @Test
     void testRequestOnboardingWithInvalidData() throws Exception {
         OnboardingRequest request = new OnboardingRequest();
@@ -0,0 +1,153 @@
+package com.onboarding.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onboarding.api.config.BulkIngestionProperties;
+import com.onboarding.api.config.PublisherProperties;
+import com.onboarding.api.config.RabbitMQConfig;
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.OnboardingFailedEvent;
+import com.onboarding.events.OnboardingRequestedEvent;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BulkOnboardingServiceTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private BulkOnboardingService bulkOnboardingService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                ((RabbitOperations.OperationsCallback<Object>) invocation.getArgument(0)).doInRabbit(rabbitTemplate));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        BulkIngestionProperties properties = new BulkIngestionProperties();
+        properties.setBatchSize(2);
+
+        ConfirmingEventPublisher eventPublisher = new ConfirmingEventPublisher(
+                rabbitTemplate, new PublisherProperties(), new SimpleMeterRegistry());
+
+        bulkOnboardingService = new BulkOnboardingService(
+                eventPublisher, new OnboardingValidationService(), validator, properties, objectMapper);
+    }
+
+    @Test
+    void testIngestPublishesInBatchesAndStreamsResultPerLine() throws Exception {
+        String body = String.join("\n",
+                request("CUST-1", "PASSPORT", "DOC123456"),
+                "",
+                request("CUST-2", "DRIVERS_LICENSE", "DL1"),
+                "{not json",
+                "{\"customerId\":\"CUST-4\"}",
+                request("CUST-5", "ID_CARD", "ID-5"));
+
+        List<JsonNode> results = ingest(body);
+
+        assertEquals(5, results.size());
+        assertEquals(1, results.get(0).get("line").asLong());
+        assertEquals("INITIATED", results.get(0).get("status").asText());
+        assertNotNull(results.get(0).get("requestId"));
+
+        assertEquals(3, results.get(1).get("line").asLong());
+        assertEquals("REJECTED", results.get(1).get("status").asText());
+        assertEquals("UNSUPPORTED_DOCUMENT_TYPE", results.get(1).get("errorCode").asText());
+
+        assertEquals("MALFORMED_JSON", results.get(2).get("errorCode").asText());
+        assertEquals("VALIDATION_ERROR", results.get(3).get("errorCode").asText());
+        assertNull(results.get(3).get("requestId"));
+        assertEquals("INITIATED", results.get(4).get("status").asText());
+
+        // Lines 1+3, 4+5 and 6 make three batches, two of which carry events
+        verify(rabbitTemplate, times(2)).invoke(any());
+        verify(rabbitTemplate, times(2)).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME),
+                eq(EventRoutingKeys.ONBOARDING_REQUESTED), any(OnboardingRequestedEvent.class), any(CorrelationData.class));
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME),
+                eq(EventRoutingKeys.ONBOARDING_FAILED), any(OnboardingFailedEvent.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void testIngestReportsNackedLinesAsPublishFailed() throws Exception {
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        List<JsonNode> results = ingest(request("CUST-1", "PASSPORT", "DOC123456"));
+
+        assertEquals("PUBLISH_FAILED", results.get(0).get("errorCode").asText());
+        assertNotNull(results.get(0).get("requestId"));
+    }
+
+    @Test
+    void testIngestReportsPublishFailureForWholeBatch() throws Exception {
+        doThrow(new AmqpConnectException(new RuntimeException("broker down"))).when(rabbitTemplate).invoke(any());
+
+        List<JsonNode> results = ingest(request("CUST-1", "PASSPORT", "DOC123456"));
+
+        assertEquals(1, results.size());
+        assertEquals("REJECTED", results.get(0).get("status").asText());
+        assertEquals("PUBLISH_FAILED", results.get(0).get("errorCode").asText());
+    }
+
+    @Test
+    void testBusinessRuleRejectionIsKeptWhenItsFailureEventCannotBePublished() throws Exception {
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(false, "NO_ROUTE"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        List<JsonNode> results = ingest(String.join("\n",
+                request("CUST-1", "PASSPORT", "DOC123456"),
+                request("CUST-2", "DRIVERS_LICENSE", "DL1")));
+
+        assertEquals("PUBLISH_FAILED", results.get(0).get("errorCode").asText());
+        assertEquals("REJECTED", results.get(1).get("status").asText());
+        assertEquals("UNSUPPORTED_DOCUMENT_TYPE", results.get(1).get("errorCode").asText());
+    }
+
+    private List<JsonNode> ingest(String body) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bulkOnboardingService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private static String request(String customerId, String documentType, String documentNumber) {
+        return "{\"customerId\":\"" + customerId + "\",\"name\":\"Test User\",\"email\":\"test@example.com\","
+                + "\"documentType\":\"" + documentType + "\",\"documentNumber\":\"" + documentNumber + "\"}";
+    }
+}
@@ -0,0 +1,82 @@
+package com.onboarding.api.service;
+
+import com.onboarding.api.config.PublisherProperties;
+import com.onboarding.api.exception.EventPublishException;
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.OnboardingRequestedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConfirmingEventPublisherTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private ConfirmingEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        PublisherProperties properties = new PublisherProperties();
+        properties.setMaxInFlight(1);
+        publisher = new ConfirmingEventPublisher(rabbitTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void testPublishCompletesOnAck() {
+        CompletableFuture<Void> future = publisher.publish(EventRoutingKeys.ONBOARDING_REQUESTED, event());
+        assertFalse(future.isDone());
+
+        capturedCorrelation().getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertDoesNotThrow(future::join);
+        assertEquals(0.0, meterRegistry.get("onboarding.publisher.in-flight").gauge().value());
+        assertEquals(1, meterRegistry.get("onboarding.publisher.confirm.latency").tag("outcome", "ack").timer().count());
+    }
+
+    @Test
+    void testPublishFailsOnNack() {
+        CompletableFuture<Void> future = publisher.publish(EventRoutingKeys.ONBOARDING_REQUESTED, event());
+
+        capturedCorrelation().getFuture().complete(new CorrelationData.Confirm(false, "nack"));
+
+        CompletionException ex = assertThrows(CompletionException.class, future::join);
+        assertEquals("PUBLISH_NACKED", ((EventPublishException) ex.getCause()).getErrorCode());
+        assertEquals(1.0, meterRegistry.get("onboarding.publisher.nacks").counter().count());
+    }
+
+    @Test
+    void testPublishRejectedWhenInFlightWindowIsFull() {
+        publisher.publish(EventRoutingKeys.ONBOARDING_REQUESTED, event());
+
+        CompletableFuture<Void> second = publisher.publish(EventRoutingKeys.ONBOARDING_REQUESTED, event());
+
+        CompletionException ex = assertThrows(CompletionException.class, second::join);
+        assertEquals("PUBLISH_BACKPRESSURE", ((EventPublishException) ex.getCause()).getErrorCode());
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    private CorrelationData capturedCorrelation() {
+        ArgumentCaptor<CorrelationData> captor = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate).convertAndSend(anyString(), eq(EventRoutingKeys.ONBOARDING_REQUESTED), any(Object.class), captor.capture());
+        return captor.getValue();
+    }
+
+    private static OnboardingRequestedEvent event() {
+        return new OnboardingRequestedEvent("REQ-1", "CUST-1", Map.of("email", "test@example.com"));
+    }
+}
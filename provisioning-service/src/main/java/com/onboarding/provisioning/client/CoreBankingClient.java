@@ -0,0 +1,7 @@
+package com.onboarding.provisioning.client;
+
+public interface CoreBankingClient {
+
+    // Opens the account under the given account id in the core banking system; never called inside a transaction
+    void openAccount(String requestId, String customerId, String accountId);
+}
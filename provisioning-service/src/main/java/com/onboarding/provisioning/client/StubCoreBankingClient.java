@@ -0,0 +1,31 @@
+package com.onboarding.provisioning.client;
+
+import com.onboarding.events.fault.FaultInjector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StubCoreBankingClient implements CoreBankingClient {
+    private static final Logger logger = LoggerFactory.getLogger(StubCoreBankingClient.class);
+
+    private final FaultInjector faultInjector;
+
+    public StubCoreBankingClient(FaultInjector faultInjector) {
+        this.faultInjector = faultInjector;
+    }
+
+    @Override
+    public void openAccount(String requestId, String customerId, String accountId) {
+        faultInjector.apply("provisioning");
+
+        // Simulate account provisioning
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        logger.debug("Core banking opened account {} for requestId: {}", accountId, requestId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.onboarding.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.provisioning.idempotency")
+public class IdempotencyProperties {
+    // How long a provisioned requestId is remembered in memory; redeliveries after that are caught by the database
+    private Duration ttl = Duration.ofHours(1);
+    private long maxSize = 100_000;
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,41 @@
+package com.onboarding.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.provisioning.write-behind")
+public class WriteBehindProperties {
+    // Accounts inserted per transaction; keep in line with hibernate.jdbc.batch_size
+    private int batchSize = 50;
+    // How long the first account of a batch may wait for others before the batch is flushed anyway
+    private Duration maxDelay = Duration.ofMillis(50);
+    // Accounts waiting to be written; once full, listeners block until the writer catches up
+    private int maxPending = 5000;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+}
@@ -3,15 +3,26 @@ package com.onboarding.provisioning.listener;
 import com.onboarding.events.AccountProvisionedEvent;
 import com.onboarding.events.EventRoutingKeys;
 import com.onboarding.events.IdentityVerifiedEvent;
+import com.onboarding.events.ProvisioningFailedEvent;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.events.error.StageFailureMetrics;
+import com.onboarding.events.retry.TieredRetryMessageRecoverer;
 import com.onboarding.provisioning.config.RabbitMQConfig;
 import com.onboarding.provisioning.service.ProvisioningService;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 public class ProvisioningEventListener {
@@ -19,25 +30,55 @@ public class ProvisioningEventListener {
 
     private final ProvisioningService provisioningService;
     private final RabbitTemplate rabbitTemplate;
+    private final TieredRetryMessageRecoverer retryRecoverer;
+    private final StageFailureMetrics failureMetrics;
 
-    public ProvisioningEventListener(ProvisioningService provisioningService, RabbitTemplate rabbitTemplate) {
+    public ProvisioningEventListener(ProvisioningService provisioningService, RabbitTemplate rabbitTemplate,
+                                     TieredRetryMessageRecoverer retryRecoverer, MeterRegistry meterRegistry) {
         this.provisioningService = provisioningService;
         this.rabbitTemplate = rabbitTemplate;
+        this.retryRecoverer = retryRecoverer;
+        this.failureMetrics = new StageFailureMetrics(meterRegistry, "provisioning");
     }
 
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-    public void handleIdentityVerified(IdentityVerifiedEvent event) {
+    // Manual ack: the account is handed to the write-behind buffer and the consumer moves on to the
+    // next delivery; the message is acked only once the batch holding its account has committed.
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, ackMode = "MANUAL")
+    public void handleIdentityVerified(Message message, Channel channel) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        IdentityVerifiedEvent event;
+        try {
+            event = (IdentityVerifiedEvent) rabbitTemplate.getMessageConverter().fromMessage(message);
+        } catch (RuntimeException e) {
+            logger.error("Rejecting unreadable message from {}", RabbitMQConfig.QUEUE_NAME, e);
+            nack(channel, deliveryTag, false);
+            return;
+        }
         logger.info("Received IdentityVerifiedEvent for requestId: {}", event.getRequestId());
 
+        CompletableFuture<Map<String, Object>> provisioning;
         try {
             String customerId = extractCustomerId(event.getRequestId(), event.getIdentityData());
-
-            Map<String, Object> accountDetails = provisioningService.provisionAccount(
+            provisioning = provisioningService.provisionAccount(
                     event.getRequestId(),
                     customerId,
                     event.getIdentityData()
             );
+        } catch (RuntimeException e) {
+            provisioning = CompletableFuture.failedFuture(e);
+        }
+        provisioning.whenComplete((accountDetails, ex) -> {
+            if (ex == null) {
+                complete(event, accountDetails, message, channel, deliveryTag);
+            } else {
+                fail(event, unwrap(ex), message, channel, deliveryTag);
+            }
+        });
+    }
 
+    private void complete(IdentityVerifiedEvent event, Map<String, Object> accountDetails,
+                          Message message, Channel channel, long deliveryTag) {
+        try {
             AccountProvisionedEvent provisionedEvent = new AccountProvisionedEvent(
                     event.getRequestId(),
                     (String) accountDetails.get("accountId"),
@@ -51,9 +92,37 @@ public class ProvisioningEventListener {
             );
 
             logger.info("Published AccountProvisionedEvent for requestId: {}", event.getRequestId());
+            ack(channel, deliveryTag);
+        } catch (Exception e) {
+            fail(event, e, message, channel, deliveryTag);
+        }
+    }
+
+    private void fail(IdentityVerifiedEvent event, Throwable failure,
+                      Message message, Channel channel, long deliveryTag) {
+        failureMetrics.record(failure);
+        try {
+            if (failure instanceof PermanentStageException e) {
+                // Retrying a deterministic rejection cannot succeed, so report it now instead of via the DLQ
+                logger.warn("Provisioning rejected for requestId: {} ({}): {}", event.getRequestId(), e.getErrorCode(), e.getMessage());
+                rabbitTemplate.convertAndSend(
+                        RabbitMQConfig.EXCHANGE_NAME,
+                        EventRoutingKeys.PROVISIONING_FAILED,
+                        new ProvisioningFailedEvent(event.getRequestId(), e.getErrorCode(), e.getMessage(),
+                                TieredRetryMessageRecoverer.retryCount(message))
+                );
+            } else {
+                logger.error("Error provisioning account for requestId: {}", event.getRequestId(), failure);
+                // Parks the message on the next retry tier, or throws once retries are exhausted
+                retryRecoverer.recover(message, failure);
+            }
+            ack(channel, deliveryTag);
+        } catch (AmqpRejectAndDontRequeueException e) {
+            // Dead-lettered to provisioning.dlq, where the Failure Handler picks it up
+            nack(channel, deliveryTag, false);
         } catch (Exception e) {
-            logger.error("Error provisioning account for requestId: {}", event.getRequestId(), e);
-            throw new RuntimeException("Account provisioning failed", e);
+            logger.error("Could not settle provisioning message for requestId: {}, requeueing", event.getRequestId(), e);
+            nack(channel, deliveryTag, true);
         }
     }
 
@@ -65,4 +134,25 @@ public class ProvisioningEventListener {
         // Fallback: generate from requestId if not found
         return "CUST-" + requestId.substring(0, 8);
     }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private static void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException e) {
+            // The channel is gone; the broker redelivers the unacked message
+            logger.warn("Failed to ack delivery {}", deliveryTag, e);
+        }
+    }
+
+    private static void nack(Channel channel, long deliveryTag, boolean requeue) {
+        try {
+            channel.basicNack(deliveryTag, false, requeue);
+        } catch (IOException e) {
+            logger.warn("Failed to nack delivery {}", deliveryTag, e);
+        }
+    }
 }
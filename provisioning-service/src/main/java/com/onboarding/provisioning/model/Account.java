@@ -6,11 +6,17 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "accounts")
 public class Account {
+    // Accounts are inserted by AccountInsertRepository, which takes each id with nextval('accounts_seq') in its
+    // SQL; Hibernate only reads them. The generator is kept so validation checks accounts_seq, and its
+    // allocationSize has to match the sequence's INCREMENT BY 50.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    // One account per onboarding request. accounts is partitioned, so the uniqueness is kept by account_requests,
+    // whose ON CONFLICT (request_id) turns a redelivery into a no-op; unique here only documents it.
+    @Column(nullable = false, unique = true)
     private String requestId;
 
     @Column(nullable = false)
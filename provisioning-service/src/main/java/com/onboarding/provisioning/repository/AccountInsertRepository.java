@@ -0,0 +1,99 @@
+package com.onboarding.provisioning.repository;
+
+import com.onboarding.provisioning.model.Account;
+import com.onboarding.provisioning.model.AccountStatus;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Plain JDBC rather than JPA: saveAll cannot express ON CONFLICT, and a redelivered request must neither
+// fail its whole batch nor create a second account
+@Repository
+public class AccountInsertRepository {
+    // account_requests is claimed first: it holds the global uniqueness on request_id that the partitioned accounts
+    // table cannot. Only rows whose claim went through are inserted; matching on account_id as well keeps a
+    // request that appears twice in one batch from inserting two accounts.
+    private static final String INSERT_SQL =
+            "WITH input (request_id, customer_id, account_id, status, created_at) AS (VALUES %s), " +
+            "claimed AS (INSERT INTO account_requests (request_id, account_id, created_at) " +
+            "SELECT request_id, account_id, created_at FROM input ON CONFLICT (request_id) DO NOTHING " +
+            "RETURNING request_id, account_id) " +
+            "INSERT INTO accounts (id, request_id, customer_id, account_id, status, created_at) " +
+            "SELECT nextval('accounts_seq'), i.request_id, i.customer_id, i.account_id, i.status, i.created_at " +
+            "FROM input i JOIN claimed c ON c.request_id = i.request_id AND c.account_id = i.account_id " +
+            "RETURNING id, request_id";
+
+    private static final String ROW_SQL =
+            "(:requestId%1$d, :customerId%1$d, :accountId%1$d, :status%1$d, CAST(:createdAt%1$d AS TIMESTAMP))";
+
+    // Joining on created_at as well lets Postgres prune accounts to the partition each request's row is in
+    private static final String FIND_SQL =
+            "SELECT a.id, a.request_id, a.customer_id, a.account_id, a.status, a.created_at FROM account_requests r " +
+            "JOIN accounts a ON a.request_id = r.request_id AND a.created_at = r.created_at " +
+            "WHERE r.request_id IN (:requestIds)";
+
+    private static final RowMapper<Account> ROW_MAPPER = (rs, rowNum) -> {
+        Account account = new Account();
+        account.setId(rs.getLong("id"));
+        account.setRequestId(rs.getString("request_id"));
+        account.setCustomerId(rs.getString("customer_id"));
+        account.setAccountId(rs.getString("account_id"));
+        account.setStatus(AccountStatus.valueOf(rs.getString("status")));
+        account.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return account;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AccountInsertRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts the accounts whose requestId has none yet, in one statement, and returns the stored account for
+    // every requestId: the new row, or the one an earlier delivery of the same request already wrote
+    public Map<String, Account> insertIfAbsent(List<Account> accounts) {
+        Map<String, Account> stored = new HashMap<>();
+        if (accounts.isEmpty()) {
+            return stored;
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder rows = new StringBuilder();
+        Map<String, Account> byRequestId = new HashMap<>();
+        for (int i = 0; i < accounts.size(); i++) {
+            Account account = accounts.get(i);
+            byRequestId.putIfAbsent(account.getRequestId(), account);
+            if (i > 0) {
+                rows.append(", ");
+            }
+            rows.append(ROW_SQL.formatted(i));
+            parameters.addValue("requestId" + i, account.getRequestId())
+                    .addValue("customerId" + i, account.getCustomerId())
+                    .addValue("accountId" + i, account.getAccountId())
+                    .addValue("status" + i, account.getStatus().name())
+                    .addValue("createdAt" + i, Timestamp.valueOf(account.getCreatedAt()));
+        }
+
+        jdbcTemplate.query(INSERT_SQL.formatted(rows), parameters, rs -> {
+            Account inserted = byRequestId.get(rs.getString("request_id"));
+            inserted.setId(rs.getLong("id"));
+            stored.put(inserted.getRequestId(), inserted);
+        });
+
+        Set<String> conflicting = new LinkedHashSet<>(byRequestId.keySet());
+        conflicting.removeAll(stored.keySet());
+        if (!conflicting.isEmpty()) {
+            jdbcTemplate.query(FIND_SQL, new MapSqlParameterSource("requestIds", conflicting), ROW_MAPPER)
+                    .forEach(existing -> stored.put(existing.getRequestId(), existing));
+        }
+        return stored;
+    }
+}
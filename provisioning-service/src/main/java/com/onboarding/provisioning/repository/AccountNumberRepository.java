@@ -0,0 +1,26 @@
+package com.onboarding.provisioning.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class AccountNumberRepository {
+    // The block size is read from the sequence itself, so it can never disagree with what nextval skips
+    private static final String LEASE_SQL =
+            "SELECT nextval('account_number_seq') AS start, increment_by AS size FROM pg_sequences " +
+            "WHERE schemaname = current_schema() AND sequencename = 'account_number_seq'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountNumberRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // The numbers [start, start + size) belong to the caller alone
+    public Block leaseBlock() {
+        return jdbcTemplate.queryForObject(LEASE_SQL, (rs, rowNum) -> new Block(rs.getLong("start"), rs.getLong("size")));
+    }
+
+    public record Block(long start, long size) {
+    }
+}
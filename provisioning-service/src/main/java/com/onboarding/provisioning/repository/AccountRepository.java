@@ -2,12 +2,20 @@ package com.onboarding.provisioning.repository;
 
 import com.onboarding.provisioning.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findByRequestId(String requestId);
-    Optional<Account> findByAccountId(String accountId);
+    // accounts is partitioned by created_at; going through account_requests supplies it, so only one partition is read
+    @Query(value = "SELECT a.* FROM account_requests r JOIN accounts a ON a.request_id = r.request_id " +
+            "AND a.created_at = r.created_at WHERE r.request_id = :requestId", nativeQuery = true)
+    Optional<Account> findByRequestId(@Param("requestId") String requestId);
+
+    @Query(value = "SELECT a.* FROM account_requests r JOIN accounts a ON a.account_id = r.account_id " +
+            "AND a.created_at = r.created_at WHERE r.account_id = :accountId", nativeQuery = true)
+    Optional<Account> findByAccountId(@Param("accountId") String accountId);
 }
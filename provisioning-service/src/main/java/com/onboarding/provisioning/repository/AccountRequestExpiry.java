@@ -0,0 +1,35 @@
+package com.onboarding.provisioning.repository;
+
+import com.onboarding.events.partition.PartitionExpiryListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+
+// account_requests is not partitioned (request_id has to stay unique across months), so its rows for an expired
+// accounts partition are deleted here; they are two short columns, by the created_at index
+@Repository
+public class AccountRequestExpiry implements PartitionExpiryListener {
+    private static final Logger logger = LoggerFactory.getLogger(AccountRequestExpiry.class);
+
+    private static final String DELETE_SQL = "DELETE FROM account_requests WHERE created_at >= ? AND created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountRequestExpiry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void partitionExpired(String table, YearMonth month) {
+        if (!"accounts".equals(table)) {
+            return;
+        }
+        int deleted = jdbcTemplate.update(DELETE_SQL,
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()), Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+        logger.info("Deleted {} account requests for expired accounts partition {}", deleted, month);
+    }
+}
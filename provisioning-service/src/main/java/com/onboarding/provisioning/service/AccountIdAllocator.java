@@ -0,0 +1,59 @@
+package com.onboarding.provisioning.service;
+
+import com.onboarding.events.concurrent.SingleFlight;
+import com.onboarding.provisioning.repository.AccountNumberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Hands out account ids from blocks of account_number_seq leased by this node. Within a block an id costs one
+// getAndIncrement; the database is only asked for the next block. Numbers are never handed out twice, so ids
+// need no uniqueness check, and they grow with each lease, which keeps inserts into the account_id index at its
+// right-hand edge instead of scattered across it like random ids.
+@Component
+public class AccountIdAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(AccountIdAllocator.class);
+
+    private final AccountNumberRepository accountNumbers;
+    // Threads that find the block used up all wait for a single lease rather than each taking one
+    private final SingleFlight<String, Block> leases;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+
+    public AccountIdAllocator(AccountNumberRepository accountNumbers, MeterRegistry meterRegistry) {
+        this.accountNumbers = accountNumbers;
+        this.leases = new SingleFlight<>("account-number-lease", meterRegistry);
+    }
+
+    public String allocate() {
+        while (true) {
+            Block block = current.get();
+            long number = block.next().getAndIncrement();
+            if (number < block.end()) {
+                return AccountIdFormat.format(number);
+            }
+            renew(block);
+        }
+    }
+
+    private void renew(Block exhausted) {
+        leases.executeBlocking("block", () -> {
+            // A caller that saw the old block after it was already replaced has nothing to do
+            if (current.get() == exhausted) {
+                AccountNumberRepository.Block leased = accountNumbers.leaseBlock();
+                current.set(new Block(leased.start(), leased.start() + leased.size()));
+                logger.debug("Leased account numbers {} to {}", leased.start(), leased.start() + leased.size() - 1);
+            }
+            return current.get();
+        });
+    }
+
+    private record Block(AtomicLong next, long end) {
+        Block(long start, long end) {
+            this(new AtomicLong(start), end);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.onboarding.provisioning.service;
+
+// ACC-XXXXX-XXXXX-C: a 50-bit account number as ten Crockford base32 characters, zero-padded so the ids
+// sort in number order, followed by a Luhn mod 32 check character. The check catches any single
+// mistyped character and any swap of two adjacent ones, except 0 with Z (the values 0 and 31), which
+// Luhn mod N cannot tell apart. Changing the check now would invalidate ids already issued.
+public final class AccountIdFormat {
+    private static final String PREFIX = "ACC-";
+    // Crockford base32: no I, L, O or U, so nothing reads as 1, 0 or a word
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int BASE = ALPHABET.length;
+    private static final int DIGITS = 10;
+    static final long MAX_NUMBER = (1L << (5 * DIGITS)) - 1;
+
+    private AccountIdFormat() {
+    }
+
+    public static String format(long number) {
+        if (number < 0 || number > MAX_NUMBER) {
+            throw new IllegalArgumentException("Account number out of range: " + number);
+        }
+        char[] digits = new char[DIGITS];
+        for (int i = DIGITS - 1; i >= 0; i--) {
+            digits[i] = ALPHABET[(int) (number & (BASE - 1))];
+            number >>>= 5;
+        }
+        return PREFIX + new String(digits, 0, 5) + '-' + new String(digits, 5, 5) + '-' + checkCharacter(digits);
+    }
+
+    public static boolean isValid(String accountId) {
+        if (accountId == null || accountId.length() != PREFIX.length() + DIGITS + 3 || !accountId.startsWith(PREFIX)
+                || accountId.charAt(PREFIX.length() + 5) != '-' || accountId.charAt(PREFIX.length() + 11) != '-') {
+            return false;
+        }
+        char[] digits = (accountId.substring(PREFIX.length(), PREFIX.length() + 5)
+                + accountId.substring(PREFIX.length() + 6, PREFIX.length() + 11)).toCharArray();
+        for (char digit : digits) {
+            if (valueOf(digit) < 0) {
+                return false;
+            }
+        }
+        return checkCharacter(digits) == accountId.charAt(accountId.length() - 1);
+    }
+
+    // Luhn mod N over the base32 digits: every second digit from the right is doubled and folded back into base 32
+    private static char checkCharacter(char[] digits) {
+        int sum = 0;
+        int factor = 2;
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int addend = factor * valueOf(digits[i]);
+            sum += addend / BASE + addend % BASE;
+            factor = factor == 2 ? 1 : 2;
+        }
+        return ALPHABET[(BASE - sum % BASE) % BASE];
+    }
+
+    private static int valueOf(char digit) {
+        for (int i = 0; i < BASE; i++) {
+            if (ALPHABET[i] == digit) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
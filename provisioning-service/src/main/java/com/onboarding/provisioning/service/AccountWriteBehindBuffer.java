@@ -0,0 +1,177 @@
+package com.onboarding.provisioning.service;
+
+import com.onboarding.events.jdbc.ConnectionHoldMetrics;
+import com.onboarding.provisioning.config.WriteBehindProperties;
+import com.onboarding.provisioning.model.Account;
+import com.onboarding.provisioning.repository.AccountInsertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Collects accounts from all listener threads and inserts them in one transaction per batch.
+// Each caller's future completes only once the transaction holding its account has committed, with the
+// account stored for its requestId; for a redelivered request that is the one written the first time.
+@Component
+public class AccountWriteBehindBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(AccountWriteBehindBuffer.class);
+
+    private final AccountInsertRepository accountInserts;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindProperties properties;
+    private final BlockingQueue<PendingWrite> pending;
+    private final DistributionSummary batchSizes;
+    private final Counter conflicts;
+    private final Thread writer;
+    // Completions run on their own threads so publishing and acking never hold up the next batch
+    private final ExecutorService callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running = true;
+
+    public AccountWriteBehindBuffer(AccountInsertRepository accountInserts, TransactionTemplate transactionTemplate,
+                                    WriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this.accountInserts = accountInserts;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, properties.getMaxPending()));
+        this.batchSizes = DistributionSummary.builder("onboarding.provisioning.write-behind.batch.size")
+                .description("Accounts inserted per transaction")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("onboarding.provisioning.write-behind.conflicts")
+                .description("Accounts not inserted because their requestId already had one")
+                .register(meterRegistry);
+        Gauge.builder("onboarding.provisioning.write-behind.pending", pending, BlockingQueue::size)
+                .description("Accounts waiting to be written")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("account-write-behind").daemon().unstarted(this::run);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    // Fails at once after stop(): nothing would be left to write the account, and the future would never complete
+    public CompletableFuture<Account> enqueue(Account account) {
+        PendingWrite write = new PendingWrite(account, new CompletableFuture<>());
+        try {
+            while (!pending.offer(write, 100, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    write.result().completeExceptionally(stopped());
+                    return write.result();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.result().completeExceptionally(e);
+            return write.result();
+        }
+        // Queued after the writer's last look at the queue, and after stop() failed what it left behind
+        if (!running && !writer.isAlive() && pending.remove(write)) {
+            write.result().completeExceptionally(stopped());
+        }
+        return write.result();
+    }
+
+    private void run() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingWrite first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.getMaxDelay().toNanos();
+                while (batch.size() < batchSize) {
+                    PendingWrite next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<PendingWrite> batch) {
+        List<Account> accounts = batch.stream().map(PendingWrite::account).toList();
+        Map<String, Account> stored;
+        try {
+            // Only the inserts run in the transaction, so this is the whole time the connection is held
+            stored = ConnectionHoldMetrics.during("account-insert",
+                    () -> transactionTemplate.execute(status -> accountInserts.insertIfAbsent(accounts)));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                PendingWrite write = batch.get(0);
+                callbackExecutor.execute(() -> write.result().completeExceptionally(e));
+                return;
+            }
+            // One bad row rolls back the whole batch; write the rows one by one so only it fails
+            logger.warn("Batch insert of {} accounts failed, retrying them individually", batch.size(), e);
+            for (PendingWrite write : batch) {
+                write(List.of(write));
+            }
+            return;
+        }
+
+        batchSizes.record(batch.size());
+        logger.debug("Inserted batch of {} accounts", batch.size());
+        for (PendingWrite write : batch) {
+            Account account = stored.get(write.account().getRequestId());
+            if (account == null) {
+                // Conflicted, but the other row was gone by the time it was read back; the retry will insert it
+                callbackExecutor.execute(() -> write.result().completeExceptionally(new IllegalStateException(
+                        "No account stored for requestId " + write.account().getRequestId())));
+                continue;
+            }
+            if (account != write.account()) {
+                conflicts.increment();
+            }
+            callbackExecutor.execute(() -> write.result().complete(account));
+        }
+    }
+
+    // Not interrupted, so a transaction in progress is never cut short; the loop drains what is queued and exits
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (!writer.isAlive()) {
+            // Enqueued while the writer was already on its way out
+            List<PendingWrite> abandoned = new ArrayList<>();
+            pending.drainTo(abandoned);
+            abandoned.forEach(write -> write.result().completeExceptionally(stopped()));
+        }
+        callbackExecutor.shutdown();
+    }
+
+    private static IllegalStateException stopped() {
+        return new IllegalStateException("Account write-behind buffer is stopped");
+    }
+
+    record PendingWrite(Account account, CompletableFuture<Account> result) {
+    }
+}
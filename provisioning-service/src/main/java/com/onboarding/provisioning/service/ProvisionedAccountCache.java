@@ -0,0 +1,35 @@
+package com.onboarding.provisioning.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onboarding.provisioning.config.IdempotencyProperties;
+import com.onboarding.provisioning.model.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// Recently provisioned accounts by requestId, so a redelivered request is answered without a database round trip
+@Component
+public class ProvisionedAccountCache {
+    private final Cache<String, Account> cache;
+
+    public ProvisionedAccountCache(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size tagged cache=provisioned-accounts
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "provisioned-accounts");
+    }
+
+    public Optional<Account> get(String requestId) {
+        return Optional.ofNullable(cache.getIfPresent(requestId));
+    }
+
+    public void put(Account account) {
+        cache.put(account.getRequestId(), account);
+    }
+}
@@ -1,64 +1,97 @@
 package com.onboarding.provisioning.service;
 
+import com.onboarding.events.concurrent.SingleFlight;
+import com.onboarding.events.error.PermanentStageException;
+import com.onboarding.provisioning.client.CoreBankingClient;
 import com.onboarding.provisioning.model.Account;
 import com.onboarding.provisioning.model.AccountStatus;
 import com.onboarding.provisioning.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ProvisioningService {
     private static final Logger logger = LoggerFactory.getLogger(ProvisioningService.class);
 
+    private final CoreBankingClient coreBankingClient;
+    private final AccountIdAllocator accountIdAllocator;
+    private final AccountWriteBehindBuffer accountWriter;
+    private final ProvisionedAccountCache provisionedAccounts;
     private final AccountRepository accountRepository;
     private final ErrorTriggerService errorTriggerService;
+    // A redelivery that arrives while the first delivery is still provisioning waits for it instead
+    private final SingleFlight<String, Account> inProgress;
 
-    public ProvisioningService(AccountRepository accountRepository, ErrorTriggerService errorTriggerService) {
+    public ProvisioningService(CoreBankingClient coreBankingClient, AccountIdAllocator accountIdAllocator,
+                               AccountWriteBehindBuffer accountWriter, ProvisionedAccountCache provisionedAccounts,
+                               AccountRepository accountRepository, ErrorTriggerService errorTriggerService,
+                               MeterRegistry meterRegistry) {
+        this.coreBankingClient = coreBankingClient;
+        this.accountIdAllocator = accountIdAllocator;
+        this.accountWriter = accountWriter;
+        this.provisionedAccounts = provisionedAccounts;
         this.accountRepository = accountRepository;
         this.errorTriggerService = errorTriggerService;
+        this.inProgress = new SingleFlight<>("provisioning", meterRegistry);
     }
 
-    @Transactional
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public Map<String, Object> provisionAccount(String requestId, String customerId, Map<String, Object> identityData) {
+    // Two phases: the core banking call runs with no transaction (and no connection) held, then the
+    // account row is written by the write-behind buffer in a short batch transaction. Completes once
+    // that transaction has committed.
+    // Idempotent per requestId: a redelivered request gets the account already provisioned for it, from memory
+    // if it was recent, otherwise from the database, and core banking is not called again. The insert's
+    // ON CONFLICT read-back only covers two instances provisioning the same request at the same moment.
+    public CompletableFuture<Map<String, Object>> provisionAccount(String requestId, String customerId, Map<String, Object> identityData) {
         logger.info("Provisioning account for requestId: {}, customerId: {}", requestId, customerId);
 
         // Check for error triggers
         if (errorTriggerService.shouldFail(customerId)) {
             logger.error("Provisioning failed: Database constraint violation for customer: {}", customerId);
-            throw new RuntimeException("Account provisioning failed: Database constraint violation");
+            throw new PermanentStageException("CONSTRAINT_VIOLATION", "Account provisioning failed: Database constraint violation");
         }
 
-        // Simulate account provisioning
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        Optional<Account> provisioned = provisionedAccounts.get(requestId);
+        if (provisioned.isPresent()) {
+            logger.info("Account {} already provisioned for requestId: {}", provisioned.get().getAccountId(), requestId);
+            return CompletableFuture.completedFuture(toAccountDetails(provisioned.get(), identityData));
         }
 
-        String accountId = "ACC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return inProgress.execute(requestId, () -> {
+            // Not in memory after a restart, a TTL expiry or a redelivery to another instance
+            Optional<Account> stored = accountRepository.findByRequestId(requestId);
+            if (stored.isPresent()) {
+                logger.info("Account {} already provisioned for requestId: {}", stored.get().getAccountId(), requestId);
+                provisionedAccounts.put(stored.get());
+                return CompletableFuture.completedFuture(stored.get());
+            }
 
-        Account account = new Account(requestId, customerId, accountId, AccountStatus.ACTIVE);
-        accountRepository.save(account);
-
-        logger.info("Account created: {} for requestId: {}", accountId, requestId);
+            String accountId = accountIdAllocator.allocate();
+            coreBankingClient.openAccount(requestId, customerId, accountId);
+            Account account = new Account(requestId, customerId, accountId, AccountStatus.ACTIVE);
+            return accountWriter.enqueue(account).thenApply(saved -> {
+                if (saved.getAccountId().equals(accountId)) {
+                    logger.info("Account created: {} for requestId: {}", accountId, requestId);
+                } else {
+                    logger.info("Account {} already provisioned for requestId: {}", saved.getAccountId(), requestId);
+                }
+                provisionedAccounts.put(saved);
+                return saved;
+            });
+        }).thenApply(saved -> toAccountDetails(saved, identityData));
+    }
 
+    private static Map<String, Object> toAccountDetails(Account account, Map<String, Object> identityData) {
         Map<String, Object> accountDetails = new HashMap<>();
-        accountDetails.put("accountId", accountId);
-        accountDetails.put("customerId", customerId);
-        accountDetails.put("status", "ACTIVE");
+        accountDetails.put("accountId", account.getAccountId());
+        accountDetails.put("customerId", account.getCustomerId());
+        accountDetails.put("status", account.getStatus().name());
         accountDetails.put("accountType", "STANDARD");
         
         // Pass through customer data from identity verification
@@ -66,7 +99,6 @@ public class ProvisioningService {
             accountDetails.put("customerEmail", identityData.get("email"));
             accountDetails.put("customerName", identityData.get("name"));
         }
-
         return accountDetails;
     }
 }
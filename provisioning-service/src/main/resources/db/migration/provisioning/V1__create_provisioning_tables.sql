@@ -0,0 +1,48 @@
+-- IF NOT EXISTS throughout so a database previously managed by ddl-auto=update is taken over in place
+
+-- Must match the allocationSize of Account's pooled generator, which Hibernate validates at startup
+CREATE SEQUENCE IF NOT EXISTS accounts_seq START WITH 1 INCREMENT BY 50;
+
+-- Account numbers are leased in blocks; each nextval hands an instance the next INCREMENT BY numbers
+CREATE SEQUENCE IF NOT EXISTS account_number_seq START WITH 1 INCREMENT BY 1000;
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id BIGINT PRIMARY KEY,
+    request_id VARCHAR(255) NOT NULL,
+    customer_id VARCHAR(255) NOT NULL,
+    account_id VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+-- Ids written before accounts_seq existed came from an identity column; start the sequence past them
+SELECT setval('accounts_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM accounts), (SELECT last_value FROM accounts_seq)));
+
+-- Under ddl-auto nothing kept request_id unique, so a redelivered request may have stored a second account.
+-- The earliest account per request is kept, as the ON CONFLICT insert would have; the others are moved to
+-- accounts_duplicates for review rather than deleted, since a customer may already have been told about them.
+CREATE TABLE IF NOT EXISTS accounts_duplicates (LIKE accounts);
+
+WITH duplicates AS (
+    DELETE FROM accounts WHERE id IN (
+        SELECT id FROM (
+            SELECT id, row_number() OVER (PARTITION BY request_id ORDER BY created_at, id) AS position
+            FROM accounts) ranked
+        WHERE position > 1)
+    RETURNING *)
+INSERT INTO accounts_duplicates SELECT * FROM duplicates;
+
+-- ON CONFLICT (request_id) in the account insert depends on this index
+CREATE UNIQUE INDEX IF NOT EXISTS ux_accounts_request_id ON accounts (request_id);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_accounts_account_id ON accounts (account_id);
+CREATE INDEX IF NOT EXISTS idx_accounts_customer_id ON accounts (customer_id);
+
+CREATE TABLE IF NOT EXISTS onboarding_requests (
+    request_id VARCHAR(255) PRIMARY KEY,
+    customer_id VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    completed_at TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_onboarding_requests_status_created_at ON onboarding_requests (status, created_at);
@@ -0,0 +1,49 @@
+-- accounts becomes range-partitioned by created_at month, so retention is a partition drop instead of a DELETE.
+-- A unique index on a partitioned table has to include the partition key, which would make request_id and
+-- account_id unique per month only; account_requests carries the global uniqueness instead, and records which
+-- partition (created_at) each request's account is in so lookups can prune to it.
+
+CREATE TABLE account_requests (
+    request_id VARCHAR(255) PRIMARY KEY,
+    account_id VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE UNIQUE INDEX ux_account_requests_account_id ON account_requests (account_id);
+CREATE INDEX idx_account_requests_created_at ON account_requests (created_at);
+
+CREATE TABLE accounts_partitioned (
+    id BIGINT NOT NULL,
+    request_id VARCHAR(255) NOT NULL,
+    customer_id VARCHAR(255) NOT NULL,
+    account_id VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Every month that has rows, through two months ahead; PartitionMaintainer keeps creating them from here
+DO $$
+DECLARE
+    month DATE := date_trunc('month', LEAST(COALESCE((SELECT MIN(created_at) FROM accounts), now()), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + INTERVAL '2 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF accounts_partitioned FOR VALUES FROM (%L) TO (%L)',
+                'accounts_p' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO accounts_partitioned (id, request_id, customer_id, account_id, status, created_at)
+SELECT id, request_id, customer_id, account_id, status, created_at FROM accounts;
+
+INSERT INTO account_requests (request_id, account_id, created_at)
+SELECT request_id, account_id, created_at FROM accounts;
+
+DROP TABLE accounts;
+ALTER TABLE accounts_partitioned RENAME TO accounts;
+ALTER TABLE accounts RENAME CONSTRAINT accounts_partitioned_pkey TO accounts_pkey;
+
+CREATE INDEX idx_accounts_request_id ON accounts (request_id);
+CREATE INDEX idx_accounts_account_id ON accounts (account_id);
+CREATE INDEX idx_accounts_customer_id ON accounts (customer_id);
@@ -0,0 +1,173 @@
+package com.onboarding.provisioning.repository;
+
+import com.onboarding.events.partition.PartitionMaintainer;
+import com.onboarding.events.partition.PartitionProperties;
+import com.onboarding.provisioning.model.Account;
+import com.onboarding.provisioning.model.AccountStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the provisioning migrations against a real (embedded) Postgres, then checks the entities validate against
+// the result and the JDBC repositories' Postgres-specific SQL works on it
+class SchemaMigrationTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // A row from before accounts was partitioned has to come through the later migrations
+        flyway("1").migrate();
+        jdbcTemplate.update("INSERT INTO accounts (id, request_id, customer_id, account_id, status, created_at) " +
+                "VALUES (nextval('accounts_seq'), 'REQ-LEGACY', 'CUST-0', 'ACC-LEGACY', 'ACTIVE', now())");
+        flyway("latest").migrate();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void testEntitiesValidateAgainstMigratedSchema() {
+        LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setPackagesToScan("com.onboarding.provisioning.model");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Spring Boot's column naming, as the services run with it
+        entityManagerFactory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "validate",
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName()));
+
+        assertDoesNotThrow(entityManagerFactory::afterPropertiesSet);
+        entityManagerFactory.destroy();
+    }
+
+    @Test
+    void testLookupColumnsAreIndexed() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename IN ('accounts', 'account_requests', 'onboarding_requests')",
+                String.class);
+
+        assertTrue(indexes.containsAll(List.of("account_requests_pkey", "ux_account_requests_account_id",
+                "idx_accounts_request_id", "onboarding_requests_pkey")));
+    }
+
+    @Test
+    void testRepeatedRequestKeepsItsFirstAccount() {
+        AccountInsertRepository inserts = new AccountInsertRepository(new NamedParameterJdbcTemplate(dataSource));
+        AccountNumberRepository.Block block = new AccountNumberRepository(jdbcTemplate).leaseBlock();
+
+        inserts.insertIfAbsent(List.of(new Account("REQ-MIGRATE", "CUST-1", "ACC-FIRST", AccountStatus.ACTIVE)));
+        Map<String, Account> stored = inserts.insertIfAbsent(List.of(
+                new Account("REQ-MIGRATE", "CUST-1", "ACC-SECOND", AccountStatus.ACTIVE),
+                new Account("REQ-OTHER", "CUST-2", "ACC-OTHER", AccountStatus.ACTIVE),
+                new Account("REQ-OTHER", "CUST-2", "ACC-OTHER-AGAIN", AccountStatus.ACTIVE),
+                new Account("REQ-LEGACY", "CUST-0", "ACC-LEGACY-AGAIN", AccountStatus.ACTIVE)));
+
+        assertEquals("ACC-FIRST", stored.get("REQ-MIGRATE").getAccountId());
+        assertEquals("ACC-OTHER", stored.get("REQ-OTHER").getAccountId());
+        assertEquals("ACC-LEGACY", stored.get("REQ-LEGACY").getAccountId());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM accounts WHERE request_id = 'REQ-OTHER'", Integer.class));
+        assertEquals(1000, block.size());
+    }
+
+    @Test
+    void testDdlAutoDatabaseWithRepeatedRequestsIsTakenOver() {
+        jdbcTemplate.execute("CREATE DATABASE ddl_auto");
+        DataSource ddlAuto = postgres.getDatabase("postgres", "ddl_auto");
+        JdbcTemplate ddlAutoJdbc = new JdbcTemplate(ddlAuto);
+        // The schema Hibernate's ddl-auto=update created, with a request that was provisioned twice
+        ddlAutoJdbc.execute("CREATE TABLE accounts (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "request_id VARCHAR(255) NOT NULL, customer_id VARCHAR(255) NOT NULL, " +
+                "account_id VARCHAR(255) NOT NULL UNIQUE, status VARCHAR(255) NOT NULL, created_at TIMESTAMP(6) NOT NULL)");
+        ddlAutoJdbc.update("INSERT INTO accounts (request_id, customer_id, account_id, status, created_at) VALUES " +
+                "('REQ-TWICE', 'CUST-1', 'ACC-FIRST', 'ACTIVE', now() - INTERVAL '1 minute'), " +
+                "('REQ-TWICE', 'CUST-1', 'ACC-SECOND', 'ACTIVE', now()), " +
+                "('REQ-ONCE', 'CUST-2', 'ACC-ONCE', 'ACTIVE', now())");
+
+        Flyway.configure()
+                .dataSource(ddlAuto)
+                .locations("classpath:db/migration/provisioning")
+                .table("flyway_schema_history_provisioning")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        assertEquals(List.of("ACC-FIRST", "ACC-ONCE"), ddlAutoJdbc.queryForList(
+                "SELECT account_id FROM account_requests ORDER BY account_id", String.class));
+        assertEquals(List.of("ACC-FIRST", "ACC-ONCE"), ddlAutoJdbc.queryForList(
+                "SELECT account_id FROM accounts ORDER BY account_id", String.class));
+        assertEquals(List.of("ACC-SECOND"), ddlAutoJdbc.queryForList(
+                "SELECT account_id FROM accounts_duplicates", String.class));
+    }
+
+    @Test
+    void testMaintainerCreatesComingMonthsAndExpiresOldOnes() {
+        YearMonth now = YearMonth.now();
+        YearMonth old = now.minusMonths(14);
+        PartitionProperties properties = new PartitionProperties();
+        PartitionProperties.Table accounts = new PartitionProperties.Table();
+        accounts.setRetentionMonths(12);
+        accounts.setDropExpired(true);
+        properties.getTables().put("accounts", accounts);
+
+        // Run once as if it were fourteen months ago, so that month has a partition to hold an old account
+        maintainer(properties, old).maintain();
+        Account expired = new Account("REQ-EXPIRED", "CUST-3", "ACC-EXPIRED", AccountStatus.ACTIVE);
+        expired.setCreatedAt(LocalDateTime.of(old.getYear(), old.getMonth(), 15, 12, 0));
+        new AccountInsertRepository(new NamedParameterJdbcTemplate(dataSource)).insertIfAbsent(List.of(expired));
+
+        maintainer(properties, now).maintain();
+
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'accounts'::regclass", String.class);
+        assertTrue(partitions.contains("accounts_p%04d_%02d".formatted(now.plusMonths(3).getYear(), now.plusMonths(3).getMonthValue())));
+        assertFalse(partitions.contains("accounts_p%04d_%02d".formatted(old.getYear(), old.getMonthValue())));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM account_requests WHERE request_id = 'REQ-EXPIRED'", Integer.class));
+    }
+
+    private static PartitionMaintainer maintainer(PartitionProperties properties, YearMonth month) {
+        Clock clock = Clock.fixed(month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        return new PartitionMaintainer(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                properties, List.of(new AccountRequestExpiry(jdbcTemplate)), clock);
+    }
+
+    private static Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/provisioning")
+                .table("flyway_schema_history_provisioning")
+                .target(target)
+                .load();
+    }
+}
@@ -0,0 +1,79 @@
+package com.onboarding.provisioning.service;
+
+import com.onboarding.provisioning.repository.AccountNumberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountIdAllocatorTest {
+
+    @Test
+    void testConcurrentAllocationNeverRepeatsAnId() throws Exception {
+        AtomicLong sequence = new AtomicLong(1);
+        AtomicInteger leases = new AtomicInteger();
+        AccountNumberRepository accountNumbers = mock(AccountNumberRepository.class);
+        when(accountNumbers.leaseBlock()).thenAnswer(invocation -> {
+            leases.incrementAndGet();
+            return new AccountNumberRepository.Block(sequence.getAndAdd(100), 100);
+        });
+        AccountIdAllocator allocator = new AccountIdAllocator(accountNumbers, new SimpleMeterRegistry());
+
+        List<Future<List<String>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 500; i++) {
+                        ids.add(allocator.allocate());
+                    }
+                    return ids;
+                }));
+            }
+        }
+
+        Set<String> unique = new HashSet<>();
+        for (Future<List<String>> result : results) {
+            List<String> ids = result.get();
+            // Each thread sees its own ids in increasing order
+            assertEquals(ids.stream().sorted().toList(), ids);
+            unique.addAll(ids);
+        }
+        assertEquals(4000, unique.size());
+        assertEquals(40, leases.get());
+        assertTrue(unique.stream().allMatch(AccountIdFormat::isValid));
+    }
+
+    @Test
+    void testCheckCharacterCatchesTyposAndTranspositions() {
+        String id = AccountIdFormat.format(123_456_789L);
+
+        assertEquals("ACC-00003-NQK8N-1", id);
+        assertTrue(AccountIdFormat.isValid(id));
+        assertFalse(AccountIdFormat.isValid("ACC-00003-NQK8M-1"));
+        assertFalse(AccountIdFormat.isValid("ACC-00003-NQ8KN-1"));
+        assertFalse(AccountIdFormat.isValid("ACC-12345678"));
+        assertTrue(AccountIdFormat.format(1).compareTo(AccountIdFormat.format(1000)) < 0);
+    }
+
+    @Test
+    void testOnlyAdjacentSwapTheCheckMissesIsZeroWithZ() {
+        // Luhn mod N cannot tell the values 0 and N-1 apart when they trade places
+        String id = AccountIdFormat.format(31 * 32 + 1);
+
+        assertEquals("ACC-00000-000Z1-", id.substring(0, 16));
+        assertTrue(AccountIdFormat.isValid(id.substring(0, 12) + "Z0" + id.substring(14)));
+        assertFalse(AccountIdFormat.isValid(id.substring(0, 13) + "1Z" + id.substring(15)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.onboarding.provisioning.service;
+
+import com.onboarding.provisioning.config.WriteBehindProperties;
+import com.onboarding.provisioning.model.Account;
+import com.onboarding.provisioning.model.AccountStatus;
+import com.onboarding.provisioning.repository.AccountInsertRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AccountWriteBehindBufferTest {
+
+    private AccountInsertRepository accountInserts;
+    private List<Integer> committedBatchSizes;
+    private AccountWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        accountInserts = mock(AccountInsertRepository.class);
+        committedBatchSizes = new ArrayList<>();
+        when(accountInserts.insertIfAbsent(anyList())).thenAnswer(invocation -> {
+            List<Account> accounts = invocation.getArgument(0);
+            if (accounts.size() > 1 && accounts.stream().anyMatch(a -> a.getAccountId().equals("ACC-BAD"))) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            if (accounts.size() == 1 && accounts.get(0).getAccountId().equals("ACC-BAD")) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            committedBatchSizes.add(accounts.size());
+            Map<String, Account> stored = new HashMap<>();
+            for (Account account : accounts) {
+                stored.put(account.getRequestId(), account.getRequestId().equals("REQ-DUP")
+                        ? new Account("REQ-DUP", "CUST-1", "ACC-FIRST", AccountStatus.ACTIVE)
+                        : account);
+            }
+            return stored;
+        });
+
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setBatchSize(3);
+        properties.setMaxDelay(Duration.ofMillis(200));
+        buffer = new AccountWriteBehindBuffer(accountInserts,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties, new SimpleMeterRegistry());
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        buffer.stop();
+    }
+
+    @Test
+    void testAccountsAreWrittenInBatchesBySizeOrDelay() {
+        List<CompletableFuture<Account>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(buffer.enqueue(account("ACC-" + i)));
+        }
+
+        results.forEach(CompletableFuture::join);
+
+        // Three by size, the fourth once max-delay passes without more accounts
+        assertEquals(List.of(3, 1), committedBatchSizes);
+    }
+
+    @Test
+    void testFailingRowOnlyFailsItsOwnAccount() {
+        CompletableFuture<Account> first = buffer.enqueue(account("ACC-1"));
+        CompletableFuture<Account> bad = buffer.enqueue(account("ACC-BAD"));
+        CompletableFuture<Account> third = buffer.enqueue(account("ACC-3"));
+
+        assertEquals("ACC-1", first.join().getAccountId());
+        assertEquals("ACC-3", third.join().getAccountId());
+        CompletionException e = assertThrows(CompletionException.class, bad::join);
+        assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+        assertEquals(List.of(1, 1), committedBatchSizes);
+    }
+
+    @Test
+    void testEnqueueAfterStopFailsInsteadOfWaitingForever() throws InterruptedException {
+        buffer.stop();
+
+        CompletableFuture<Account> result = buffer.enqueue(account("ACC-1"));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> result.orTimeout(1, TimeUnit.SECONDS).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        verifyNoInteractions(accountInserts);
+    }
+
+    @Test
+    void testRedeliveredRequestCompletesWithTheAccountAlreadyStored() {
+        Account redelivered = new Account("REQ-DUP", "CUST-1", "ACC-SECOND", AccountStatus.ACTIVE);
+
+        Account stored = buffer.enqueue(redelivered).join();
+
+        assertEquals("ACC-FIRST", stored.getAccountId());
+    }
+
+    private static Account account(String accountId) {
+        return new Account("REQ-" + accountId, "CUST-1", accountId, AccountStatus.ACTIVE);
+    }
+}
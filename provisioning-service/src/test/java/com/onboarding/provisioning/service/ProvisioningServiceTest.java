@@ -1,17 +1,21 @@
 package com.onboarding.provisioning.service;
 
+import com.onboarding.provisioning.client.CoreBankingClient;
+import com.onboarding.provisioning.config.IdempotencyProperties;
 import com.onboarding.provisioning.model.Account;
 import com.onboarding.provisioning.model.AccountStatus;
 import com.onboarding.provisioning.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -20,26 +24,81 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ProvisioningServiceTest {
 
+    @Mock
+    private AccountWriteBehindBuffer accountWriter;
+
+    @Mock
+    private ErrorTriggerService errorTriggerService;
+
+    @Mock
+    private CoreBankingClient coreBankingClient;
+
+    @Mock
+    private AccountIdAllocator accountIdAllocator;
+
     @Mock
     private AccountRepository accountRepository;
 
-    @InjectMocks
     private ProvisioningService provisioningService;
 
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        provisioningService = new ProvisioningService(coreBankingClient, accountIdAllocator, accountWriter,
+                new ProvisionedAccountCache(new IdempotencyProperties(), meterRegistry), accountRepository,
+                errorTriggerService, meterRegistry);
+    }
+
     @Test
     void testProvisionAccount() {
         String requestId = "REQ-123";
         String customerId = "CUST-123";
         Map<String, Object> identityData = new HashMap<>();
 
-        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountIdAllocator.allocate()).thenReturn("ACC-00000-0000Z-8");
+        when(accountWriter.enqueue(any(Account.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
 
-        Map<String, Object> result = provisioningService.provisionAccount(requestId, customerId, identityData);
+        Map<String, Object> result = provisioningService.provisionAccount(requestId, customerId, identityData).join();
 
         assertNotNull(result);
-        assertNotNull(result.get("accountId"));
+        assertEquals("ACC-00000-0000Z-8", result.get("accountId"));
+        verify(coreBankingClient).openAccount(requestId, customerId, "ACC-00000-0000Z-8");
         assertEquals(customerId, result.get("customerId"));
         assertEquals("ACTIVE", result.get("status"));
-        verify(accountRepository, times(1)).save(any(Account.class));
+        verify(accountWriter, times(1)).enqueue(any(Account.class));
+    }
+
+    @Test
+    void testRedeliveryReusesTheProvisionedAccount() {
+        when(accountIdAllocator.allocate()).thenReturn("ACC-12345678");
+        CompletableFuture<Account> committed = new CompletableFuture<>();
+        when(accountWriter.enqueue(any(Account.class))).thenReturn(committed);
+
+        CompletableFuture<Map<String, Object>> first = provisioningService.provisionAccount("REQ-123", "CUST-123", Map.of());
+        CompletableFuture<Map<String, Object>> concurrent = provisioningService.provisionAccount("REQ-123", "CUST-123", Map.of());
+        committed.complete(new Account("REQ-123", "CUST-123", "ACC-12345678",
+                AccountStatus.ACTIVE));
+        Map<String, Object> later = provisioningService.provisionAccount("REQ-123", "CUST-123", Map.of()).join();
+
+        assertEquals("ACC-12345678", first.join().get("accountId"));
+        assertEquals("ACC-12345678", concurrent.join().get("accountId"));
+        assertEquals("ACC-12345678", later.get("accountId"));
+        verify(coreBankingClient, times(1)).openAccount("REQ-123", "CUST-123", "ACC-12345678");
+        verify(accountWriter, times(1)).enqueue(any(Account.class));
+    }
+
+    @Test
+    void testRedeliveryWithColdCacheReusesTheStoredAccount() {
+        when(accountRepository.findByRequestId("REQ-456"))
+                .thenReturn(Optional.of(new Account("REQ-456", "CUST-456", "ACC-STORED", AccountStatus.ACTIVE)));
+
+        Map<String, Object> redelivered = provisioningService.provisionAccount("REQ-456", "CUST-456", Map.of()).join();
+        Map<String, Object> again = provisioningService.provisionAccount("REQ-456", "CUST-456", Map.of()).join();
+
+        assertEquals("ACC-STORED", redelivered.get("accountId"));
+        assertEquals("ACC-STORED", again.get("accountId"));
+        verify(accountRepository, times(1)).findByRequestId("REQ-456");
+        verifyNoInteractions(coreBankingClient, accountIdAllocator, accountWriter);
     }
 }
@@ -29,6 +29,7 @@ SERVICES=(
     "notification-service"
     "completion-service"
     "failure-handler"
+    "status-service"
 )
 
 # Login to Docker registry (if not docker.io)
@@ -0,0 +1,13 @@
+package com.onboarding.status;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class StatusServiceApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(StatusServiceApplication.class, args);
+    }
+}
@@ -0,0 +1,94 @@
+package com.onboarding.status.config;
+
+import com.onboarding.events.listener.ListenerContainerConfigurer;
+import com.onboarding.events.listener.ListenerProperties;
+import com.onboarding.status.listener.StatusBatchRecoverer;
+import com.onboarding.status.model.PipelineEvent;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ListenerProperties.class)
+public class RabbitMQConfig {
+    public static final String EXCHANGE_NAME = "onboarding.exchange";
+    public static final String QUEUE_NAME = "status.queue";
+    public static final String DLX_NAME = "onboarding.dlx";
+    public static final String DLQ_NAME = "status.dlq";
+
+    @Bean
+    public TopicExchange onboardingExchange() {
+        return new TopicExchange(EXCHANGE_NAME, true, false);
+    }
+
+    @Bean
+    public Queue statusQueue() {
+        return QueueBuilder.durable(QUEUE_NAME).build();
+    }
+
+    @Bean
+    public TopicExchange dlxExchange() {
+        return new TopicExchange(DLX_NAME, true, false);
+    }
+
+    // Parks the events that can never be recorded; nothing consumes it, an operator inspects what lands there
+    @Bean
+    public Queue statusDlq() {
+        return QueueBuilder.durable(DLQ_NAME).build();
+    }
+
+    @Bean
+    public Binding statusDlqBinding() {
+        return BindingBuilder
+                .bind(statusDlq())
+                .to(dlxExchange())
+                .with(DLQ_NAME);
+    }
+
+    // One binding per routing key the pipeline publishes, so the timeline sees every stage and every failure
+    @Bean
+    public Declarables statusBindings() {
+        List<Binding> bindings = new ArrayList<>();
+        for (PipelineEvent event : PipelineEvent.values()) {
+            bindings.add(BindingBuilder.bind(statusQueue()).to(onboardingExchange()).with(event.routingKey()));
+        }
+        return new Declarables(bindings);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               ListenerProperties listenerProperties,
+                                                                               StatusProperties statusProperties,
+                                                                               StatusBatchRecoverer batchRecoverer,
+                                                                               Environment environment) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        ListenerContainerConfigurer.configure(factory, listenerProperties, environment);
+
+        // Messages are handed over as one list and acked together once their batch is written
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(statusProperties.getBatchSize());
+        factory.setReceiveTimeout(statusProperties.getBatchReceiveTimeout().toMillis());
+        factory.setPrefetchCount(Math.max(listenerProperties.getPrefetch(), statusProperties.getBatchSize()));
+
+        // A batch that cannot be written while Postgres is down is retried with backoff, then put back on the queue.
+        // Nothing is dropped for that: the events are the only input the read model has. Any other failure is not
+        // retried as a batch; the recoverer isolates the messages that cause it.
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .retryPolicy(new SimpleRetryPolicy(3, StatusBatchRecoverer.TRANSIENT_FAILURES))
+                .backOffOptions(1000, 2.0, 10000)
+                .recoverer(batchRecoverer)
+                .build());
+        return factory;
+    }
+}
@@ -0,0 +1,80 @@
+package com.onboarding.status.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "onboarding.status")
+public class StatusProperties {
+    // Events are written to Postgres and acked in batches of up to this many
+    private int batchSize = 200;
+    // How long a consumer waits for a batch to fill before handling what it has
+    private Duration batchReceiveTimeout = Duration.ofMillis(100);
+    private int bulkMaxRequests = 500;
+    private Duration retention = Duration.ofDays(30);
+    private Index index = new Index();
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getBatchReceiveTimeout() {
+        return batchReceiveTimeout;
+    }
+
+    public void setBatchReceiveTimeout(Duration batchReceiveTimeout) {
+        this.batchReceiveTimeout = batchReceiveTimeout;
+    }
+
+    public int getBulkMaxRequests() {
+        return bulkMaxRequests;
+    }
+
+    public void setBulkMaxRequests(int bulkMaxRequests) {
+        this.bulkMaxRequests = bulkMaxRequests;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public Index getIndex() {
+        return index;
+    }
+
+    public void setIndex(Index index) {
+        this.index = index;
+    }
+
+    public static class Index {
+        private long maxSize = 200_000;
+        // Timelines nobody has read or updated for this long are dropped; they are reloaded from Postgres if asked for
+        private Duration expireAfterAccess = Duration.ofMinutes(30);
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+    }
+}
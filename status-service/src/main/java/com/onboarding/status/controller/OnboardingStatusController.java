@@ -0,0 +1,58 @@
+package com.onboarding.status.controller;
+
+import com.onboarding.status.config.StatusProperties;
+import com.onboarding.status.dto.BulkStatusResponse;
+import com.onboarding.status.model.OnboardingTimeline;
+import com.onboarding.status.service.StatusIndex;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/onboarding")
+public class OnboardingStatusController {
+
+    private final StatusIndex statusIndex;
+    private final StatusProperties statusProperties;
+
+    public OnboardingStatusController(StatusIndex statusIndex, StatusProperties statusProperties) {
+        this.statusIndex = statusIndex;
+        this.statusProperties = statusProperties;
+    }
+
+    @GetMapping("/{requestId}")
+    public ResponseEntity<OnboardingTimeline> getStatus(@PathVariable("requestId") String requestId) {
+        return statusIndex.find(requestId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/requests:status")
+    public BulkStatusResponse getStatuses(@RequestBody List<String> requestIds) {
+        Set<String> unique = new LinkedHashSet<>(requestIds);
+        if (unique.size() > statusProperties.getBulkMaxRequests()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + statusProperties.getBulkMaxRequests() + " request ids per lookup");
+        }
+
+        Map<String, OnboardingTimeline> timelines = statusIndex.findAll(unique);
+        List<OnboardingTimeline> found = new ArrayList<>(timelines.size());
+        List<String> notFound = new ArrayList<>();
+        for (String requestId : unique) {
+            OnboardingTimeline timeline = timelines.get(requestId);
+            if (timeline != null) {
+                found.add(timeline);
+            } else {
+                notFound.add(requestId);
+            }
+        }
+        return new BulkStatusResponse(found, notFound);
+    }
+}
@@ -0,0 +1,8 @@
+package com.onboarding.status.dto;
+
+import com.onboarding.status.model.OnboardingTimeline;
+
+import java.util.List;
+
+public record BulkStatusResponse(List<OnboardingTimeline> found, List<String> notFound) {
+}
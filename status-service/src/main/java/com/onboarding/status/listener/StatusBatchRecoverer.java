@@ -0,0 +1,75 @@
+package com.onboarding.status.listener;
+
+import com.onboarding.status.config.RabbitMQConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.List;
+import java.util.Map;
+
+// Decides what happens to a batch the listener could not record. A failure that can pass (Postgres down, a lock
+// timeout) puts the whole batch back on the queue. Any other failure will happen again however often the batch is
+// retried, so the messages are recorded one at a time and only the ones that still fail are dead-lettered.
+@Component
+public class StatusBatchRecoverer implements MessageBatchRecoverer {
+    private static final Logger logger = LoggerFactory.getLogger(StatusBatchRecoverer.class);
+
+    // Causes are traversed because the listener container wraps whatever the listener threw
+    public static final BinaryExceptionClassifier TRANSIENT_FAILURES = new BinaryExceptionClassifier(Map.of(
+            TransientDataAccessException.class, true,
+            RecoverableDataAccessException.class, true,
+            DataAccessResourceFailureException.class, true,
+            CannotCreateTransactionException.class, true), false, true);
+
+    private final StatusEventListener listener;
+    private final RabbitTemplate rabbitTemplate;
+    private final Counter deadLettered;
+
+    public StatusBatchRecoverer(StatusEventListener listener, RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.listener = listener;
+        this.rabbitTemplate = rabbitTemplate;
+        this.deadLettered = Counter.builder("onboarding.status.events.dead-lettered")
+                .description("Messages on the status queue that could not be recorded and were moved to status.dlq")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recover(List<Message> messages, Throwable cause) {
+        if (TRANSIENT_FAILURES.classify(cause)) {
+            throw new ImmediateRequeueAmqpException("Status batch could not be recorded", cause);
+        }
+        logger.warn("Status batch of {} could not be recorded, recording its messages one at a time", messages.size(), cause);
+        // Rows the batch managed to write before failing are redelivered rows here, which the insert skips
+        for (Message message : messages) {
+            try {
+                listener.handleEvents(List.of(message));
+            } catch (RuntimeException e) {
+                if (TRANSIENT_FAILURES.classify(e)) {
+                    throw new ImmediateRequeueAmqpException("Status batch could not be recorded", e);
+                }
+                deadLetter(message, e);
+            }
+        }
+    }
+
+    private void deadLetter(Message message, RuntimeException cause) {
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        logger.error("Moving {} event that cannot be recorded to {}", routingKey, RabbitMQConfig.DLQ_NAME, cause);
+        message.getMessageProperties().setHeader("x-original-routingKey", routingKey);
+        message.getMessageProperties().setHeader("x-exception-message", String.valueOf(cause.getMessage()));
+        rabbitTemplate.send(RabbitMQConfig.DLX_NAME, RabbitMQConfig.DLQ_NAME, message);
+        deadLettered.increment();
+    }
+}
@@ -0,0 +1,104 @@
+package com.onboarding.status.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.onboarding.status.config.RabbitMQConfig;
+import com.onboarding.status.model.PipelineEvent;
+import com.onboarding.status.model.StatusEvent;
+import com.onboarding.status.service.StatusIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class StatusEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(StatusEventListener.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    // Column widths of onboarding_status_events
+    private static final int MAX_ID_LENGTH = 255;
+    private static final int MAX_STAGE_LENGTH = 32;
+
+    private final StatusIndex statusIndex;
+    private final Counter skipped;
+
+    public StatusEventListener(StatusIndex statusIndex, MeterRegistry meterRegistry) {
+        this.statusIndex = statusIndex;
+        this.skipped = Counter.builder("onboarding.status.events.skipped")
+                .description("Messages on the status queue that could not be read as a pipeline event")
+                .register(meterRegistry);
+    }
+
+    // Only the fields the timeline shows are read, straight from the JSON, so one listener handles every event type
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
+    public void handleEvents(List<Message> messages) {
+        List<StatusEvent> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            StatusEvent event = parse(message);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        statusIndex.record(events);
+        logger.debug("Recorded {} of {} status events", events.size(), messages.size());
+    }
+
+    // A message that cannot be read is skipped rather than failing the batch, or it would hold back every event with it
+    StatusEvent parse(Message message) {
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        PipelineEvent event = PipelineEvent.fromRoutingKey(routingKey);
+        if (event == null) {
+            skipped.increment();
+            logger.warn("Skipping message with unexpected routing key: {}", routingKey);
+            return null;
+        }
+        try {
+            JsonNode body = OBJECT_MAPPER.readTree(message.getBody());
+            String requestId = text(body, "requestId");
+            if (requestId == null) {
+                skipped.increment();
+                logger.warn("Skipping {} event without a requestId", routingKey);
+                return null;
+            }
+            // Cut short it would be filed under some other request, so it is skipped instead
+            if (requestId.length() > MAX_ID_LENGTH) {
+                skipped.increment();
+                logger.warn("Skipping {} event with a {} character requestId", routingKey, requestId.length());
+                return null;
+            }
+            LocalDateTime occurredAt = body.hasNonNull("timestamp")
+                    ? OBJECT_MAPPER.treeToValue(body.get("timestamp"), LocalDateTime.class)
+                    : LocalDateTime.now();
+            String failedStage = text(body, "failedStage");
+            // The display fields are cut to fit, so an over-long value cannot fail the insert for its whole batch
+            return new StatusEvent(requestId, event,
+                    failedStage != null ? bounded(failedStage, MAX_STAGE_LENGTH) : event.stage(), occurredAt,
+                    bounded(text(body, "customerId"), MAX_ID_LENGTH), bounded(text(body, "accountId"), MAX_ID_LENGTH),
+                    bounded(text(body, "errorCode"), MAX_ID_LENGTH), text(body, "errorMessage"));
+        } catch (IOException e) {
+            skipped.increment();
+            logger.warn("Skipping unreadable {} event", routingKey, e);
+            return null;
+        }
+    }
+
+    private static String text(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String bounded(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,9 @@
+package com.onboarding.status.model;
+
+// Declared in precedence order: a request's status is the highest one any of its events implies
+public enum OnboardingStatus {
+    INITIATED,
+    IN_PROGRESS,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,68 @@
+package com.onboarding.status.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable, so the index can hand the same instance to any number of readers while events replace it.
+// Merging is a union keyed by event, which makes the result independent of the order events arrive in.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OnboardingTimeline(String requestId, OnboardingStatus status, String stage, String customerId,
+                                 String accountId, LocalDateTime createdAt, LocalDateTime updatedAt,
+                                 List<TimelineEntry> timeline) {
+
+    private static final Comparator<TimelineEntry> CHRONOLOGICAL =
+            Comparator.comparing(TimelineEntry::occurredAt).thenComparing(TimelineEntry::event);
+
+    public static OnboardingTimeline of(String requestId, Collection<StatusEvent> events) {
+        Map<PipelineEvent, TimelineEntry> entries = new EnumMap<>(PipelineEvent.class);
+        String customerId = null;
+        String accountId = null;
+        for (StatusEvent event : events) {
+            entries.putIfAbsent(event.event(), new TimelineEntry(event.event(), event.stage(), event.occurredAt(),
+                    event.errorCode(), event.errorMessage()));
+            customerId = customerId != null ? customerId : event.customerId();
+            accountId = accountId != null ? accountId : event.accountId();
+        }
+        return build(requestId, entries, customerId, accountId);
+    }
+
+    public OnboardingTimeline merge(OnboardingTimeline other) {
+        Map<PipelineEvent, TimelineEntry> entries = new EnumMap<>(PipelineEvent.class);
+        for (TimelineEntry entry : timeline) {
+            entries.put(entry.event(), entry);
+        }
+        boolean changed = false;
+        for (TimelineEntry entry : other.timeline) {
+            changed |= entries.putIfAbsent(entry.event(), entry) == null;
+        }
+        String mergedCustomerId = customerId != null ? customerId : other.customerId;
+        String mergedAccountId = accountId != null ? accountId : other.accountId;
+        if (!changed && mergedCustomerId == customerId && mergedAccountId == accountId) {
+            return this;
+        }
+        return build(requestId, entries, mergedCustomerId, mergedAccountId);
+    }
+
+    private static OnboardingTimeline build(String requestId, Map<PipelineEvent, TimelineEntry> entries,
+                                            String customerId, String accountId) {
+        List<TimelineEntry> timeline = new ArrayList<>(entries.values());
+        timeline.sort(CHRONOLOGICAL);
+        OnboardingStatus status = OnboardingStatus.INITIATED;
+        for (TimelineEntry entry : timeline) {
+            if (entry.event().status().compareTo(status) > 0) {
+                status = entry.event().status();
+            }
+        }
+        TimelineEntry first = timeline.get(0);
+        TimelineEntry last = timeline.get(timeline.size() - 1);
+        return new OnboardingTimeline(requestId, status, last.stage(), customerId, accountId,
+                first.occurredAt(), last.occurredAt(), List.copyOf(timeline));
+    }
+}
@@ -0,0 +1,55 @@
+package com.onboarding.status.model;
+
+import com.onboarding.events.EventRoutingKeys;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Every event the pipeline publishes, with the stage it reports on and what it means for the request
+public enum PipelineEvent {
+    ONBOARDING_REQUESTED(EventRoutingKeys.ONBOARDING_REQUESTED, "ONBOARDING", OnboardingStatus.INITIATED),
+    KYC_COMPLETED(EventRoutingKeys.KYC_COMPLETED, "KYC", OnboardingStatus.IN_PROGRESS),
+    IDENTITY_VERIFIED(EventRoutingKeys.IDENTITY_VERIFIED, "IDENTITY", OnboardingStatus.IN_PROGRESS),
+    ACCOUNT_PROVISIONED(EventRoutingKeys.ACCOUNT_PROVISIONED, "PROVISIONING", OnboardingStatus.IN_PROGRESS),
+    NOTIFICATION_SENT(EventRoutingKeys.NOTIFICATION_SENT, "NOTIFICATION", OnboardingStatus.IN_PROGRESS),
+    ONBOARDING_COMPLETED(EventRoutingKeys.ONBOARDING_COMPLETED, "COMPLETION", OnboardingStatus.COMPLETED),
+    KYC_FAILED(EventRoutingKeys.KYC_FAILED, "KYC", OnboardingStatus.FAILED),
+    IDENTITY_FAILED(EventRoutingKeys.IDENTITY_FAILED, "IDENTITY", OnboardingStatus.FAILED),
+    PROVISIONING_FAILED(EventRoutingKeys.PROVISIONING_FAILED, "PROVISIONING", OnboardingStatus.FAILED),
+    NOTIFICATION_FAILED(EventRoutingKeys.NOTIFICATION_FAILED, "NOTIFICATION", OnboardingStatus.FAILED),
+    ONBOARDING_FAILED(EventRoutingKeys.ONBOARDING_FAILED, "ONBOARDING", OnboardingStatus.FAILED);
+
+    private static final Map<String, PipelineEvent> BY_ROUTING_KEY = new HashMap<>();
+
+    static {
+        for (PipelineEvent event : values()) {
+            BY_ROUTING_KEY.put(event.routingKey, event);
+        }
+    }
+
+    private final String routingKey;
+    private final String stage;
+    private final OnboardingStatus status;
+
+    PipelineEvent(String routingKey, String stage, OnboardingStatus status) {
+        this.routingKey = routingKey;
+        this.stage = stage;
+        this.status = status;
+    }
+
+    public static PipelineEvent fromRoutingKey(String routingKey) {
+        return BY_ROUTING_KEY.get(routingKey);
+    }
+
+    public String routingKey() {
+        return routingKey;
+    }
+
+    public String stage() {
+        return stage;
+    }
+
+    public OnboardingStatus status() {
+        return status;
+    }
+}
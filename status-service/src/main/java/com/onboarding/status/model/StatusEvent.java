@@ -0,0 +1,8 @@
+package com.onboarding.status.model;
+
+import java.time.LocalDateTime;
+
+// One pipeline event as recorded for a request
+public record StatusEvent(String requestId, PipelineEvent event, String stage, LocalDateTime occurredAt,
+                          String customerId, String accountId, String errorCode, String errorMessage) {
+}
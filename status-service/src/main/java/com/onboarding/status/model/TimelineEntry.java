@@ -0,0 +1,10 @@
+package com.onboarding.status.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TimelineEntry(PipelineEvent event, String stage, LocalDateTime occurredAt,
+                            String errorCode, String errorMessage) {
+}
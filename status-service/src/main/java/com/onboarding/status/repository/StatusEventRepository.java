@@ -0,0 +1,77 @@
+package com.onboarding.status.repository;
+
+import com.onboarding.status.model.PipelineEvent;
+import com.onboarding.status.model.StatusEvent;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class StatusEventRepository {
+    // A redelivered event hits the primary key and is skipped; the first copy recorded wins
+    private static final String INSERT_SQL =
+            "INSERT INTO onboarding_status_events (request_id, event_type, stage, occurred_at, customer_id, account_id, " +
+            "error_code, error_message) VALUES (:requestId, :eventType, :stage, :occurredAt, :customerId, :accountId, " +
+            ":errorCode, :errorMessage) ON CONFLICT DO NOTHING";
+
+    private static final String SELECT_SQL =
+            "SELECT request_id, event_type, stage, occurred_at, customer_id, account_id, error_code, error_message " +
+            "FROM onboarding_status_events WHERE request_id IN (:requestIds)";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM onboarding_status_events WHERE recorded_at < now() - make_interval(secs => :retentionSeconds)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StatusEventRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<StatusEvent> events) {
+        SqlParameterSource[] batch = new SqlParameterSource[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            StatusEvent event = events.get(i);
+            batch[i] = new MapSqlParameterSource("requestId", event.requestId())
+                    .addValue("eventType", event.event().name())
+                    .addValue("stage", event.stage())
+                    .addValue("occurredAt", event.occurredAt())
+                    .addValue("customerId", event.customerId())
+                    .addValue("accountId", event.accountId())
+                    .addValue("errorCode", event.errorCode())
+                    .addValue("errorMessage", event.errorMessage());
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    public Map<String, List<StatusEvent>> findByRequestIds(Collection<String> requestIds) {
+        Map<String, List<StatusEvent>> events = new HashMap<>();
+        if (requestIds.isEmpty()) {
+            return events;
+        }
+        jdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource("requestIds", requestIds), rs -> {
+            StatusEvent event = new StatusEvent(
+                    rs.getString("request_id"),
+                    PipelineEvent.valueOf(rs.getString("event_type")),
+                    rs.getString("stage"),
+                    rs.getTimestamp("occurred_at").toLocalDateTime(),
+                    rs.getString("customer_id"),
+                    rs.getString("account_id"),
+                    rs.getString("error_code"),
+                    rs.getString("error_message"));
+            events.computeIfAbsent(event.requestId(), id -> new ArrayList<>()).add(event);
+        });
+        return events;
+    }
+
+    public int purgeOlderThan(Duration retention) {
+        return jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("retentionSeconds", retention.toMillis() / 1000.0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.onboarding.status.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onboarding.status.config.StatusProperties;
+import com.onboarding.status.model.OnboardingTimeline;
+import com.onboarding.status.model.StatusEvent;
+import com.onboarding.status.repository.StatusEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Per-request timelines. Reads are served from a bounded in-memory index and only go to Postgres for a request
+// the index does not hold; the pipeline services are never asked.
+@Component
+public class StatusIndex {
+    private static final Logger logger = LoggerFactory.getLogger(StatusIndex.class);
+
+    private final StatusEventRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final StatusProperties properties;
+    private final Cache<String, OnboardingTimeline> timelines;
+    private final Counter recorded;
+
+    public StatusIndex(StatusEventRepository repository, PlatformTransactionManager transactionManager,
+                       StatusProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(properties.getIndex().getMaxSize())
+                .expireAfterAccess(properties.getIndex().getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "onboarding-status");
+        this.recorded = Counter.builder("onboarding.status.events.recorded")
+                .description("Pipeline events written to the status read model")
+                .register(meterRegistry);
+    }
+
+    public Optional<OnboardingTimeline> find(String requestId) {
+        return Optional.ofNullable(timelines.get(requestId, this::load));
+    }
+
+    // Requests nobody has an event for are left out of the result
+    public Map<String, OnboardingTimeline> findAll(Collection<String> requestIds) {
+        Map<String, OnboardingTimeline> found = new LinkedHashMap<>(timelines.getAllPresent(requestIds));
+        List<String> missing = new ArrayList<>();
+        for (String requestId : requestIds) {
+            if (!found.containsKey(requestId)) {
+                missing.add(requestId);
+            }
+        }
+        // Loaded outside any per-key lock, so record() may have installed a newer timeline meanwhile. Merging
+        // instead of putting means the load can only add to what is there, never replace it.
+        loadAll(missing).forEach((requestId, timeline) ->
+                found.put(requestId, timelines.asMap().merge(requestId, timeline, OnboardingTimeline::merge)));
+        return found;
+    }
+
+    public void record(List<StatusEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // Written before the index changes: a reader that misses the index then sees them in Postgres
+        transactionTemplate.executeWithoutResult(status -> repository.insertAll(events));
+        recorded.increment(events.size());
+
+        Map<String, List<StatusEvent>> byRequest = new LinkedHashMap<>();
+        for (StatusEvent event : events) {
+            byRequest.computeIfAbsent(event.requestId(), id -> new ArrayList<>()).add(event);
+        }
+        List<String> absent = new ArrayList<>();
+        byRequest.forEach((requestId, requestEvents) -> {
+            OnboardingTimeline update = OnboardingTimeline.of(requestId, requestEvents);
+            if (timelines.asMap().computeIfPresent(requestId, (id, timeline) -> timeline.merge(update)) == null) {
+                absent.add(requestId);
+            }
+        });
+        // A request the index does not hold may have earlier events only Postgres knows about, so it is loaded whole.
+        // This keeps requests still moving through the pipeline, the ones being polled, in memory.
+        loadAll(absent).forEach((requestId, timeline) -> timelines.asMap().merge(requestId, timeline, OnboardingTimeline::merge));
+    }
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    public void purgeExpired() {
+        int purged = repository.purgeOlderThan(properties.getRetention());
+        if (purged > 0) {
+            logger.info("Purged {} expired onboarding status events", purged);
+        }
+    }
+
+    private OnboardingTimeline load(String requestId) {
+        return loadAll(List.of(requestId)).get(requestId);
+    }
+
+    private Map<String, OnboardingTimeline> loadAll(Collection<? extends String> requestIds) {
+        Map<String, OnboardingTimeline> loaded = new LinkedHashMap<>();
+        repository.findByRequestIds(Set.copyOf(requestIds))
+                .forEach((requestId, events) -> loaded.put(requestId, OnboardingTimeline.of(requestId, events)));
+        return loaded;
+    }
+}
@@ -0,0 +1,16 @@
+-- One row per pipeline event seen for a request. Rows are only ever inserted (or purged), so batches
+-- written by concurrent consumers, or redelivered after a crash, cannot overwrite each other.
+CREATE TABLE onboarding_status_events (
+    request_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    stage VARCHAR(32) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    customer_id VARCHAR(255),
+    account_id VARCHAR(255),
+    error_code VARCHAR(255),
+    error_message TEXT,
+    recorded_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (request_id, event_type)
+);
+
+CREATE INDEX idx_onboarding_status_events_recorded_at ON onboarding_status_events (recorded_at);
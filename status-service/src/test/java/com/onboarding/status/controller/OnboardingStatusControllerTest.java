@@ -0,0 +1,93 @@
+package com.onboarding.status.controller;
+
+import com.onboarding.status.config.StatusProperties;
+import com.onboarding.status.model.OnboardingStatus;
+import com.onboarding.status.model.OnboardingTimeline;
+import com.onboarding.status.model.PipelineEvent;
+import com.onboarding.status.model.StatusEvent;
+import com.onboarding.status.service.StatusIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(OnboardingStatusController.class)
+@Import(StatusProperties.class)
+class OnboardingStatusControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StatusIndex statusIndex;
+
+    @Test
+    void testGetStatus() throws Exception {
+        when(statusIndex.find("REQ-1")).thenReturn(Optional.of(timeline("REQ-1")));
+
+        mockMvc.perform(get("/api/onboarding/REQ-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requestId").value("REQ-1"))
+                .andExpect(jsonPath("$.status").value(OnboardingStatus.IN_PROGRESS.name()))
+                .andExpect(jsonPath("$.stage").value("KYC"))
+                .andExpect(jsonPath("$.timeline[1].event").value("KYC_COMPLETED"))
+                .andExpect(jsonPath("$.timeline[1].occurredAt").value("2024-03-01T10:00:05"));
+    }
+
+    @Test
+    void testUnknownRequestIsNotFound() throws Exception {
+        when(statusIndex.find("REQ-404")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/onboarding/REQ-404"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testBulkLookupSeparatesUnknownRequests() throws Exception {
+        when(statusIndex.findAll(eq(Set.of("REQ-1", "REQ-2")))).thenReturn(Map.of("REQ-1", timeline("REQ-1")));
+
+        mockMvc.perform(post("/api/onboarding/requests:status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"REQ-1\", \"REQ-2\", \"REQ-1\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].requestId").value("REQ-1"))
+                .andExpect(jsonPath("$.notFound[0]").value("REQ-2"));
+    }
+
+    @Test
+    void testBulkLookupOverTheLimitIsRejected() throws Exception {
+        when(statusIndex.findAll(any())).thenReturn(Map.of());
+
+        mockMvc.perform(post("/api/onboarding/requests:status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(IntStream.rangeClosed(1, 501)
+                                .mapToObj(i -> "\"REQ-" + i + "\"")
+                                .collect(Collectors.joining(",", "[", "]"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static OnboardingTimeline timeline(String requestId) {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 10, 0);
+        return OnboardingTimeline.of(requestId, List.of(
+                new StatusEvent(requestId, PipelineEvent.ONBOARDING_REQUESTED, "ONBOARDING", start, "CUST-1", null, null, null),
+                new StatusEvent(requestId, PipelineEvent.KYC_COMPLETED, "KYC", start.plusSeconds(5), null, null, null, null)));
+    }
+}
@@ -0,0 +1,277 @@
+package com.onboarding.status.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.onboarding.events.AccountProvisionedEvent;
+import com.onboarding.events.BaseEvent;
+import com.onboarding.events.EventRoutingKeys;
+import com.onboarding.events.KYCCompletedEvent;
+import com.onboarding.events.OnboardingCompletedEvent;
+import com.onboarding.events.OnboardingFailedEvent;
+import com.onboarding.events.OnboardingRequestedEvent;
+import com.onboarding.status.config.RabbitMQConfig;
+import com.onboarding.status.config.StatusProperties;
+import com.onboarding.status.listener.StatusBatchRecoverer;
+import com.onboarding.status.listener.StatusEventListener;
+import com.onboarding.status.model.OnboardingStatus;
+import com.onboarding.status.model.OnboardingTimeline;
+import com.onboarding.status.model.PipelineEvent;
+import com.onboarding.status.model.StatusEvent;
+import com.onboarding.status.repository.StatusEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// Listener to index to Postgres and back, with events built and serialized the way the pipeline publishes them
+class StatusIndexTest {
+
+    private static final Jackson2JsonMessageConverter CONVERTER =
+            new Jackson2JsonMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StatusIndex index;
+    private StatusEventListener listener;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/status")
+                .table("flyway_schema_history_status")
+                .load()
+                .migrate();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("TRUNCATE onboarding_status_events");
+        start();
+    }
+
+    @Test
+    void testEveryRoutingKeyIsProjected() throws Exception {
+        for (Field field : EventRoutingKeys.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                assertNotNull(PipelineEvent.fromRoutingKey((String) field.get(null)), field.getName());
+            }
+        }
+    }
+
+    @Test
+    void testTimelineFollowsEventTimesWhateverOrderTheyArriveIn() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 10, 0);
+        listener.handleEvents(List.of(
+                message(EventRoutingKeys.ACCOUNT_PROVISIONED,
+                        at(new AccountProvisionedEvent("REQ-1", "ACC-1", Map.of()), start.plusSeconds(3))),
+                message(EventRoutingKeys.ONBOARDING_REQUESTED,
+                        at(new OnboardingRequestedEvent("REQ-1", "CUST-1", Map.of()), start))));
+        listener.handleEvents(List.of(
+                message(EventRoutingKeys.KYC_COMPLETED, at(new KYCCompletedEvent("REQ-1", "APPROVED", Map.of()), start.plusSeconds(1))),
+                // Redelivered: already recorded, changes nothing
+                message(EventRoutingKeys.ONBOARDING_REQUESTED,
+                        at(new OnboardingRequestedEvent("REQ-1", "CUST-1", Map.of()), start.plusSeconds(9)))));
+
+        OnboardingTimeline timeline = index.find("REQ-1").orElseThrow();
+
+        assertEquals(OnboardingStatus.IN_PROGRESS, timeline.status());
+        assertEquals("PROVISIONING", timeline.stage());
+        assertEquals("CUST-1", timeline.customerId());
+        assertEquals("ACC-1", timeline.accountId());
+        assertEquals(start, timeline.createdAt());
+        assertEquals(List.of(PipelineEvent.ONBOARDING_REQUESTED, PipelineEvent.KYC_COMPLETED, PipelineEvent.ACCOUNT_PROVISIONED),
+                timeline.timeline().stream().map(entry -> entry.event()).toList());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM onboarding_status_events", Integer.class));
+    }
+
+    @Test
+    void testRestartedIndexReloadsFromPostgres() {
+        listener.handleEvents(List.of(
+                message(EventRoutingKeys.ONBOARDING_REQUESTED, new OnboardingRequestedEvent("REQ-2", "CUST-2", Map.of())),
+                message(EventRoutingKeys.ONBOARDING_REQUESTED, new OnboardingRequestedEvent("REQ-3", "CUST-3", Map.of()))));
+
+        start();
+        // REQ-2's new event reaches an index that has never seen it, so the earlier one comes from Postgres
+        listener.handleEvents(List.of(
+                message(EventRoutingKeys.ONBOARDING_COMPLETED, new OnboardingCompletedEvent("REQ-2", "COMPLETED")),
+                message(EventRoutingKeys.ONBOARDING_FAILED,
+                        new OnboardingFailedEvent("REQ-3", "KYC", "KYC_REJECTED", "Document expired", 2))));
+        Map<String, OnboardingTimeline> timelines = index.findAll(List.of("REQ-2", "REQ-3", "REQ-UNKNOWN"));
+
+        assertEquals(List.of("REQ-2", "REQ-3"), timelines.keySet().stream().sorted().toList());
+        assertEquals(OnboardingStatus.COMPLETED, timelines.get("REQ-2").status());
+        assertEquals(2, timelines.get("REQ-2").timeline().size());
+        OnboardingTimeline failed = timelines.get("REQ-3");
+        assertEquals(OnboardingStatus.FAILED, failed.status());
+        assertEquals("KYC", failed.stage());
+        assertEquals("KYC_REJECTED", failed.timeline().get(1).errorCode());
+        assertEquals("CUST-3", failed.customerId());
+    }
+
+    @Test
+    void testBulkLoadRacingAnEventDoesNotReplaceTheNewerTimeline() throws Exception {
+        listener.handleEvents(List.of(
+                message(EventRoutingKeys.ONBOARDING_REQUESTED, new OnboardingRequestedEvent("REQ-5", "CUST-5", Map.of()))));
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        // The first load (the bulk poll) reads Postgres, then stalls before installing what it read
+        StatusEventRepository repository = new StatusEventRepository(new NamedParameterJdbcTemplate(dataSource)) {
+            @Override
+            public Map<String, List<StatusEvent>> findByRequestIds(Collection<String> requestIds) {
+                Map<String, List<StatusEvent>> events = super.findByRequestIds(requestIds);
+                if (first.getAndSet(false)) {
+                    loaded.countDown();
+                    await(release);
+                }
+                return events;
+            }
+        };
+        index = new StatusIndex(repository, new DataSourceTransactionManager(dataSource), new StatusProperties(), meterRegistry);
+        listener = new StatusEventListener(index, meterRegistry);
+
+        CompletableFuture<Map<String, OnboardingTimeline>> poll = CompletableFuture.supplyAsync(() -> index.findAll(List.of("REQ-5")));
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+        listener.handleEvents(List.of(
+                message(EventRoutingKeys.ONBOARDING_COMPLETED, new OnboardingCompletedEvent("REQ-5", "COMPLETED"))));
+        release.countDown();
+        poll.get(10, TimeUnit.SECONDS);
+
+        assertEquals(OnboardingStatus.COMPLETED, index.find("REQ-5").orElseThrow().status());
+        assertEquals(OnboardingStatus.COMPLETED, index.findAll(List.of("REQ-5")).get("REQ-5").status());
+    }
+
+    @Test
+    void testUnreadableMessageIsSkippedWithoutLosingTheRestOfItsBatch() {
+        listener.handleEvents(List.of(
+                new Message("not json".getBytes(), properties(EventRoutingKeys.KYC_COMPLETED)),
+                message("kyc.unknown", new KYCCompletedEvent("REQ-4", "APPROVED", Map.of())),
+                message(EventRoutingKeys.ONBOARDING_REQUESTED, new OnboardingRequestedEvent("REQ-4", "CUST-4", Map.of()))));
+
+        assertEquals(OnboardingStatus.INITIATED, index.find("REQ-4").orElseThrow().status());
+        assertEquals(2, meterRegistry.get("onboarding.status.events.skipped").counter().count());
+    }
+
+    @Test
+    void testOverLongFieldsAreCutToFitTheirColumns() {
+        String customerId = "C".repeat(300);
+        listener.handleEvents(List.of(
+                message(EventRoutingKeys.ONBOARDING_REQUESTED, new OnboardingRequestedEvent("REQ-8", customerId, Map.of())),
+                message(EventRoutingKeys.ONBOARDING_REQUESTED,
+                        new OnboardingRequestedEvent("R".repeat(300), "CUST-9", Map.of()))));
+
+        assertEquals(customerId.substring(0, 255), index.find("REQ-8").orElseThrow().customerId());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM onboarding_status_events", Integer.class));
+        assertEquals(1, meterRegistry.get("onboarding.status.events.skipped").counter().count());
+    }
+
+    @Test
+    void testPoisonMessageIsDeadLetteredAndTheRestOfItsBatchRecorded() {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        StatusBatchRecoverer recoverer = new StatusBatchRecoverer(listener, rabbitTemplate, meterRegistry);
+        Message recordable = message(EventRoutingKeys.ONBOARDING_REQUESTED,
+                new OnboardingRequestedEvent("REQ-6", "CUST-6", Map.of()));
+        // Postgres refuses a NUL in text, however often the row is retried
+        Message poison = message(EventRoutingKeys.ONBOARDING_FAILED,
+                new OnboardingFailedEvent("REQ-7", "KYC", "KYC_REJECTED", "Document\u0000expired", 2));
+        List<Message> batch = List.of(recordable, poison);
+
+        DataIntegrityViolationException failure =
+                assertThrows(DataIntegrityViolationException.class, () -> listener.handleEvents(batch));
+        assertFalse(StatusBatchRecoverer.TRANSIENT_FAILURES.classify(failure));
+        recoverer.recover(batch, failure);
+
+        assertEquals(OnboardingStatus.INITIATED, index.find("REQ-6").orElseThrow().status());
+        assertTrue(index.find("REQ-7").isEmpty());
+        verify(rabbitTemplate).send(RabbitMQConfig.DLX_NAME, RabbitMQConfig.DLQ_NAME, poison);
+        verifyNoMoreInteractions(rabbitTemplate);
+        assertEquals(EventRoutingKeys.ONBOARDING_FAILED, poison.getMessageProperties().getHeader("x-original-routingKey"));
+        assertEquals(1, meterRegistry.get("onboarding.status.events.dead-lettered").counter().count());
+    }
+
+    @Test
+    void testBatchThatFailsOnAnOutageIsRequeuedWhole() {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        StatusBatchRecoverer recoverer = new StatusBatchRecoverer(listener, rabbitTemplate, meterRegistry);
+        List<Message> batch = List.of(message(EventRoutingKeys.ONBOARDING_REQUESTED,
+                new OnboardingRequestedEvent("REQ-10", "CUST-10", Map.of())));
+
+        assertThrows(ImmediateRequeueAmqpException.class, () -> recoverer.recover(batch,
+                new RuntimeException(new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection"))));
+
+        assertTrue(index.find("REQ-10").isEmpty());
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class));
+    }
+
+    private void start() {
+        index = new StatusIndex(new StatusEventRepository(new NamedParameterJdbcTemplate(dataSource)),
+                new DataSourceTransactionManager(dataSource), new StatusProperties(), meterRegistry);
+        listener = new StatusEventListener(index, meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted");
+        }
+    }
+
+    private static <T extends BaseEvent> T at(T event, LocalDateTime timestamp) {
+        event.setTimestamp(timestamp);
+        return event;
+    }
+
+    private static Message message(String routingKey, BaseEvent event) {
+        return CONVERTER.toMessage(event, properties(routingKey));
+    }
+
+    private static MessageProperties properties(String routingKey) {
+        MessageProperties properties = new MessageProperties();
+        properties.setReceivedRoutingKey(routingKey);
+        return properties;
+    }
+}